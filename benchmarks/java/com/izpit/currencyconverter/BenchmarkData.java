@@ -0,0 +1,110 @@
+package com.izpit.currencyconverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Catalog and EUR rates recorded from /currencies and /latest, loaded into the
+ * process-wide {@link CurrencyRegistry} the way the app does on startup.
+ */
+final class BenchmarkData {
+    static final String[] CODES = {
+            "AUD", "BGN", "BRL", "CAD", "CHF", "CNY", "CZK", "DKK", "EUR", "GBP", "HKD",
+            "HUF", "IDR", "ILS", "INR", "ISK", "JPY", "KRW", "MXN", "MYR", "NOK", "NZD",
+            "PHP", "PLN", "RON", "SEK", "SGD", "THB", "TRY", "USD", "ZAR"
+    };
+    static final String[] NAMES = {
+            "Australian Dollar", "Bulgarian Lev", "Brazilian Real", "Canadian Dollar", "Swiss Franc",
+            "Chinese Renminbi Yuan", "Czech Koruna", "Danish Krone", "Euro", "British Pound",
+            "Hong Kong Dollar", "Hungarian Forint", "Indonesian Rupiah", "Israeli New Sheqel",
+            "Indian Rupee", "Icelandic Króna", "Japanese Yen", "South Korean Won", "Mexican Peso",
+            "Malaysian Ringgit", "Norwegian Krone", "New Zealand Dollar", "Philippine Peso",
+            "Polish Złoty", "Romanian Leu", "Swedish Krona", "Singapore Dollar", "Thai Baht",
+            "Turkish Lira", "United States Dollar", "South African Rand"
+    };
+    // Against EUR, in CODES order.
+    static final double[] EUR_RATES = {
+            1.6321, 1.9558, 5.9927, 1.4712, 0.9412, 7.6870, 25.137, 7.4589, 1.0, 0.84135, 8.4281,
+            395.53, 17612.0, 4.0563, 90.12, 149.9, 161.87, 1478.41, 19.831, 4.9522, 11.7095, 1.7903,
+            62.118, 4.2803, 4.9753, 11.4435, 1.4287, 38.905, 35.127, 1.0821, 19.7713
+    };
+
+    private BenchmarkData() {}
+
+    static CurrencyRegistry loadRegistry() {
+        CurrencyRegistry registry = CurrencyRegistry.getInstance();
+        if (!registry.isLoaded()) {
+            registry.loadCatalog(Arrays.asList(CODES), Arrays.asList(NAMES));
+        }
+        return registry;
+    }
+
+    static RateSnapshot eurSnapshot() {
+        CurrencyRegistry registry = loadRegistry();
+        int[] ids = new int[CODES.length];
+        for (int i = 0; i < CODES.length; i++) {
+            ids[i] = registry.idOf(CODES[i]);
+        }
+        return RateSnapshot.of(registry.idOf("EUR"), ids, EUR_RATES, CODES.length, System.currentTimeMillis());
+    }
+
+    /** The /currencies payload for {@link #CODES}. */
+    static String currenciesJson() {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < CODES.length; i++) {
+            json.append(i == 0 ? "" : ",").append('"').append(CODES[i]).append("\":\"").append(NAMES[i]).append('"');
+        }
+        return json.append('}').toString();
+    }
+
+    /** The /latest payload for EUR, which Frankfurter leaves out of its own rates. */
+    static String latestJson() {
+        StringBuilder json = new StringBuilder("{\"amount\":1.0,\"base\":\"EUR\",\"date\":\"2024-06-14\",\"rates\":{");
+        appendRates(json, 1.0);
+        return json.append("}}").toString();
+    }
+
+    /** A /{start}.. payload for EUR with every currency quoted on each of {@code days} days. */
+    static String timeSeriesJson(int days) {
+        StringBuilder json = new StringBuilder("{\"amount\":1.0,\"base\":\"EUR\",\"rates\":{");
+        List<String> dates = isoDates(days);
+        for (int i = 0; i < dates.size(); i++) {
+            json.append(i == 0 ? "" : ",").append('"').append(dates.get(i)).append("\":{");
+            appendRates(json, 1 + Math.sin(i * 0.1) * 0.02);
+            json.append('}');
+        }
+        return json.append("}}").toString();
+    }
+
+    private static void appendRates(StringBuilder json, double drift) {
+        boolean first = true;
+        for (int i = 0; i < CODES.length; i++) {
+            if (CODES[i].equals("EUR")) {
+                continue;
+            }
+            json.append(first ? "" : ",").append('"').append(CODES[i]).append("\":").append(EUR_RATES[i] * drift);
+            first = false;
+        }
+    }
+
+    /** ISO dates for {@code days} consecutive days starting 2020-01-01, as /{start}.. returns them. */
+    static List<String> isoDates(int days) {
+        List<String> dates = new ArrayList<>(days);
+        int[] monthLengths = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+        int year = 2020, month = 1, day = 1;
+        for (int i = 0; i < days; i++) {
+            dates.add(String.format("%04d-%02d-%02d", year, month, day));
+            boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+            int length = month == 2 && leap ? 29 : monthLengths[month - 1];
+            if (++day > length) {
+                day = 1;
+                if (++month > 12) {
+                    month = 1;
+                    year++;
+                }
+            }
+        }
+        return dates;
+    }
+}
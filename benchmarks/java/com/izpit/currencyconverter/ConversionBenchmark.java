@@ -0,0 +1,64 @@
+package com.izpit.currencyconverter;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Currency-code lookup and cross-rate conversion against one snapshot. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConversionBenchmark {
+    private CurrencyRegistry registry;
+    private CurrencyIndex index;
+    private RateSnapshot snapshot;
+    private int usdId;
+    private int jpyId;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        registry = BenchmarkData.loadRegistry();
+        index = CurrencyIndex.forRegistry(registry);
+        snapshot = BenchmarkData.eurSnapshot();
+        usdId = registry.idOf("USD");
+        jpyId = registry.idOf("JPY");
+    }
+
+    @Benchmark
+    public int codeLookup() {
+        cursor = (cursor + 1) % BenchmarkData.CODES.length;
+        return registry.idOf(BenchmarkData.CODES[cursor]);
+    }
+
+    @Benchmark
+    public int[] prefixSearch() {
+        return index.lookup("sw");
+    }
+
+    @Benchmark
+    public double crossRate() {
+        return snapshot.convert(usdId, jpyId, 1234.56);
+    }
+
+    @Benchmark
+    public void convertAllPairs(Blackhole blackhole) {
+        for (String from : BenchmarkData.CODES) {
+            int fromId = registry.idOf(from);
+            for (String to : BenchmarkData.CODES) {
+                blackhole.consume(snapshot.convert(fromId, registry.idOf(to), 100));
+            }
+        }
+    }
+
+    @Benchmark
+    public RateSnapshot rebase() {
+        return snapshot.rebase(usdId);
+    }
+}
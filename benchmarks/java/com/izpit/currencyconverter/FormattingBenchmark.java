@@ -0,0 +1,50 @@
+package com.izpit.currencyconverter;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * History row and rate text formatting: {@link FixedPointFormatter} as the
+ * adapters use it, against the String.format calls it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FormattingBenchmark {
+    private final FixedPointFormatter formatter = new FixedPointFormatter('.');
+    private final long amountMinor = 123_456;
+    private final long resultMinor = 13_359_811;
+    private final double rate = 1.082137;
+
+    @Benchmark
+    public String historyRowFixedPoint() {
+        formatter.reset();
+        formatter.appendMinorUnits(amountMinor, 2);
+        formatter.append(' ').append("EUR").append(" → ");
+        formatter.appendMinorUnits(resultMinor, 2);
+        return formatter.append(' ').append("JPY").toString();
+    }
+
+    @Benchmark
+    public String historyRowStringFormat() {
+        return String.format(Locale.US, "%.2f %s → %.2f %s",
+                amountMinor / 100.0, "EUR", resultMinor / 100.0, "JPY");
+    }
+
+    @Benchmark
+    public String rateFixedPoint() {
+        formatter.reset();
+        return formatter.appendDouble(rate, 4).toString();
+    }
+
+    @Benchmark
+    public String rateStringFormat() {
+        return String.format(Locale.US, "%.4f", rate);
+    }
+}
@@ -0,0 +1,187 @@
+package com.izpit.currencyconverter;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Bulk history insertion on an in-memory SQLite database with the current
+ * schema, built by replaying {@link DatabaseSchema}'s migrations. Each batch
+ * goes in the way ConversionHistoryDao.insertAll does it: the rows, then one
+ * update per affected conversion_totals row, all in one transaction. The
+ * row-by-row case commits every conversion on its own for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HistoryInsertBenchmark {
+    // The table Room created for the original entity; the migrations start from it.
+    private static final String VERSION_1 = "CREATE TABLE IF NOT EXISTS `conversion_history` ("
+            + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `fromCurrency` TEXT, `toCurrency` TEXT, "
+            + "`amount` REAL NOT NULL, `result` REAL NOT NULL, `timestamp` INTEGER NOT NULL)";
+    private static final String INSERT_ROW = "INSERT INTO conversion_history (fromCurrencyId, "
+            + "toCurrencyId, amountMinor, amountScale, resultMinor, resultScale, timestamp) "
+            + "VALUES (?, ?, ?, 2, ?, 2, ?)";
+    // The same statements as ConversionHistoryDao.ensureTotal and addToTotal.
+    private static final String ENSURE_TOTAL = "INSERT OR IGNORE INTO conversion_totals (period, "
+            + "bucket, fromCurrencyId, toCurrencyId, conversionCount, amountTotal) VALUES (?, ?, ?, ?, 0, 0)";
+    private static final String ADD_TO_TOTAL = "UPDATE conversion_totals SET conversionCount = "
+            + "conversionCount + ?, amountTotal = amountTotal + ? WHERE period = ? AND bucket = ? "
+            + "AND fromCurrencyId = ? AND toCurrencyId = ?";
+    private static final int PAIRS = 12;
+    private static final long YEAR_MILLIS = TimeUnit.DAYS.toMillis(365);
+
+    @Param({"1", "100", "1000"})
+    public int batchSize;
+
+    private Connection db;
+    private PreparedStatement insertRow;
+    private PreparedStatement ensureTotal;
+    private PreparedStatement addToTotal;
+    private final TimeZone zone = TimeZone.getDefault();
+
+    private int[] fromIds;
+    private int[] toIds;
+    private long[] amounts;
+    private long[] results;
+    private long[] timestamps;
+
+    @Setup
+    public void setUp() throws SQLException {
+        db = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = db.createStatement()) {
+            statement.execute(VERSION_1);
+            for (String[] migration : new String[][] {DatabaseSchema.MIGRATE_1_2, DatabaseSchema.MIGRATE_2_3,
+                    DatabaseSchema.MIGRATE_3_4, DatabaseSchema.MIGRATE_4_5}) {
+                for (String sql : migration) {
+                    statement.execute(sql);
+                }
+            }
+            for (String code : BenchmarkData.CODES) {
+                statement.execute("INSERT INTO currency_codes (code) VALUES ('" + code + "')");
+            }
+        }
+        insertRow = db.prepareStatement(INSERT_ROW);
+        ensureTotal = db.prepareStatement(ENSURE_TOTAL);
+        addToTotal = db.prepareStatement(ADD_TO_TOTAL);
+
+        // A dozen popular pairs over the past year, like a user's real history.
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        fromIds = new int[batchSize];
+        toIds = new int[batchSize];
+        amounts = new long[batchSize];
+        results = new long[batchSize];
+        timestamps = new long[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            int pair = random.nextInt(PAIRS);
+            fromIds[i] = 1 + pair % BenchmarkData.CODES.length;
+            toIds[i] = 1 + (pair * 7 + 3) % BenchmarkData.CODES.length;
+            amounts[i] = 1 + random.nextInt(10_000_00);
+            results[i] = amounts[i] * (50 + random.nextInt(100)) / 100;
+            timestamps[i] = now - (long) (random.nextDouble() * YEAR_MILLIS);
+        }
+    }
+
+    /** Starts every iteration from empty tables so their size does not drift. */
+    @Setup(Level.Iteration)
+    public void clear() throws SQLException {
+        try (Statement statement = db.createStatement()) {
+            statement.execute("DELETE FROM conversion_history");
+            statement.execute("DELETE FROM conversion_totals");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        db.close();
+    }
+
+    @Benchmark
+    public void insertBatchInOneTransaction() throws SQLException {
+        db.setAutoCommit(false);
+        try {
+            insertRows(0, batchSize);
+            db.commit();
+        } finally {
+            db.setAutoCommit(true);
+        }
+    }
+
+    @Benchmark
+    public void insertRowByRow() throws SQLException {
+        for (int i = 0; i < batchSize; i++) {
+            db.setAutoCommit(false);
+            try {
+                insertRows(i, i + 1);
+                db.commit();
+            } finally {
+                db.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Mirrors ConversionHistoryDao.insertAll: the rows first, then the folded totals.
+    private void insertRows(int from, int to) throws SQLException {
+        for (int i = from; i < to; i++) {
+            insertRow.setInt(1, fromIds[i]);
+            insertRow.setInt(2, toIds[i]);
+            insertRow.setLong(3, amounts[i]);
+            insertRow.setLong(4, results[i]);
+            insertRow.setLong(5, timestamps[i]);
+            insertRow.addBatch();
+        }
+        insertRow.executeBatch();
+
+        // period, bucket, from, to -> count, amount in ten-thousandths, as in ConversionTotal.fold.
+        Map<String, long[]> totals = new HashMap<>();
+        for (int i = from; i < to; i++) {
+            int day = TimeSeries.localEpochDay(timestamps[i], zone);
+            long amount = amounts[i] * 100;
+            add(totals, 0, day, i, amount);
+            add(totals, 1, TimeSeries.epochMonth(day), i, amount);
+            add(totals, 2, 0, i, amount);
+        }
+        for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+            long[] total = entry.getValue();
+            for (int column = 0; column < 4; column++) {
+                ensureTotal.setLong(column + 1, total[column]);
+                addToTotal.setLong(column + 3, total[column]);
+            }
+            addToTotal.setLong(1, total[4]);
+            addToTotal.setLong(2, total[5]);
+            ensureTotal.addBatch();
+            addToTotal.addBatch();
+        }
+        ensureTotal.executeBatch();
+        addToTotal.executeBatch();
+    }
+
+    private void add(Map<String, long[]> totals, int period, int bucket, int row, long amount) {
+        String key = period + ":" + bucket + ":" + fromIds[row] + ":" + toIds[row];
+        long[] total = totals.get(key);
+        if (total == null) {
+            total = new long[] {period, bucket, fromIds[row], toIds[row], 0, 0};
+            totals.put(key, total);
+        }
+        total[4]++;
+        total[5] += amount;
+    }
+}
@@ -0,0 +1,45 @@
+package com.izpit.currencyconverter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parsing typed amounts and converting them: {@link Money} on minor units,
+ * against the BigDecimal code that gives the same answers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+    private final String typed = "12345.678";
+    private final long amountMinor = 1_234_568;
+    private final double rate = 161.3875;
+    private final BigDecimal rateDecimal = BigDecimal.valueOf(rate);
+
+    @Benchmark
+    public long parseMoney() {
+        return Money.parse(typed, 2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal parseBigDecimal() {
+        return new BigDecimal(typed).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public long convertMoney() {
+        return Money.convert(amountMinor, 2, rate, 0, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal convertBigDecimal() {
+        return BigDecimal.valueOf(amountMinor, 2).multiply(rateDecimal).setScale(0, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,112 @@
+package com.izpit.currencyconverter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Payload parsing: the streaming {@link RatesParser} against the JSONObject tree
+ * the app used to build from the whole body string. The JSONObject versions copy
+ * what the old fetchRates and fetchCurrencies did with each payload.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParsingBenchmark {
+    /** Time-series payloads are sized separately so the other cases run once. */
+    @State(Scope.Thread)
+    public static class Series {
+        @Param({"365", "3650"})
+        public int days;
+
+        String json;
+
+        @Setup
+        public void setUp() {
+            json = BenchmarkData.timeSeriesJson(days);
+        }
+    }
+
+    private String currencies;
+    private String latest;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.loadRegistry();
+        currencies = BenchmarkData.currenciesJson();
+        latest = BenchmarkData.latestJson();
+    }
+
+    @Benchmark
+    public List<String> currenciesStreaming() throws IOException {
+        List<String> codes = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        RatesParser.parseCurrencies(new StringReader(currencies), codes, names);
+        return names;
+    }
+
+    @Benchmark
+    public List<String> currenciesJsonObject() throws JSONException {
+        JSONObject root = new JSONObject(currencies);
+        List<String> names = new ArrayList<>();
+        for (Iterator<String> keys = root.keys(); keys.hasNext(); ) {
+            String code = keys.next();
+            names.add(code + " - " + root.getString(code));
+        }
+        return names;
+    }
+
+    @Benchmark
+    public RateSnapshot latestStreaming() throws IOException {
+        return RatesParser.parseLatest(new StringReader(latest));
+    }
+
+    @Benchmark
+    public RateSnapshot latestJsonObject() throws JSONException {
+        CurrencyRegistry registry = CurrencyRegistry.getInstance();
+        JSONObject rates = new JSONObject(latest).getJSONObject("rates");
+        int[] ids = new int[rates.length()];
+        double[] values = new double[rates.length()];
+        int count = 0;
+        for (Iterator<String> keys = rates.keys(); keys.hasNext(); ) {
+            String code = keys.next();
+            ids[count] = registry.intern(code);
+            values[count++] = rates.getDouble(code);
+        }
+        return RateSnapshot.of(registry.idOf("EUR"), ids, values, count, 0);
+    }
+
+    @Benchmark
+    public TimeSeries timeSeriesStreaming(Series payload) throws IOException {
+        return RatesParser.parseTimeSeries(new StringReader(payload.json), "USD");
+    }
+
+    @Benchmark
+    public TimeSeries timeSeriesJsonObject(Series payload) throws JSONException {
+        JSONObject rates = new JSONObject(payload.json).getJSONObject("rates");
+        List<String> dates = new ArrayList<>();
+        for (Iterator<String> keys = rates.keys(); keys.hasNext(); ) {
+            dates.add(keys.next());
+        }
+        // JSONObject does not keep key order.
+        dates.sort(null);
+        TimeSeries series = new TimeSeries(dates.size());
+        for (String date : dates) {
+            series.add(TimeSeries.parseEpochDay(date), rates.getJSONObject(date).getDouble("USD"));
+        }
+        return series;
+    }
+}
@@ -0,0 +1,49 @@
+package com.izpit.currencyconverter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Date parsing from the /{start}.. response and chart downsampling. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimeSeriesBenchmark {
+    @Param({"365", "3650"})
+    public int days;
+
+    private List<String> dates;
+    private TimeSeries series;
+
+    @Setup
+    public void setUp() {
+        dates = BenchmarkData.isoDates(days);
+        series = new TimeSeries(days);
+        double rate = 1.08;
+        for (String date : dates) {
+            rate += Math.sin(series.size() * 0.1) * 0.002;
+            series.add(TimeSeries.parseEpochDay(date), rate);
+        }
+    }
+
+    @Benchmark
+    public int parseDates() {
+        int sum = 0;
+        for (String date : dates) {
+            sum += TimeSeries.parseEpochDay(date);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public TimeSeries downsampleToScreenWidth() {
+        return Lttb.downsample(series, 360);
+    }
+}
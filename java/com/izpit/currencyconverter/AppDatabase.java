@@ -1,16 +1,42 @@
 package com.izpit.currencyconverter;
 
 import android.content.Context;
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 import com.izpit.currencyconverter.History.ConversionHistory;
 import com.izpit.currencyconverter.History.ConversionHistoryDao;
+import com.izpit.currencyconverter.History.ConversionTotal;
+import com.izpit.currencyconverter.History.CurrencyCode;
+import com.izpit.currencyconverter.RateStore.CurrencyEntity;
+import com.izpit.currencyconverter.RateStore.RateSnapshotDao;
+import com.izpit.currencyconverter.RateStore.RateSnapshotEntity;
 
-@Database(entities = {ConversionHistory.class}, version = 1)
+@Database(entities = {ConversionHistory.class, CurrencyCode.class, ConversionTotal.class,
+        RateSnapshotEntity.class, CurrencyEntity.class}, version = 5)
 public abstract class AppDatabase extends RoomDatabase {
     private static AppDatabase instance;
     public abstract ConversionHistoryDao conversionHistoryDao();
+    public abstract RateSnapshotDao rateSnapshotDao();
+
+    static final Migration MIGRATION_1_2 = migration(1, 2, DatabaseSchema.MIGRATE_1_2);
+    static final Migration MIGRATION_2_3 = migration(2, 3, DatabaseSchema.MIGRATE_2_3);
+    static final Migration MIGRATION_3_4 = migration(3, 4, DatabaseSchema.MIGRATE_3_4);
+    static final Migration MIGRATION_4_5 = migration(4, 5, DatabaseSchema.MIGRATE_4_5);
+
+    private static Migration migration(int from, int to, String[] statements) {
+        return new Migration(from, to) {
+            @Override
+            public void migrate(@NonNull SupportSQLiteDatabase db) {
+                for (String sql : statements) {
+                    db.execSQL(sql);
+                }
+            }
+        };
+    }
 
     public static synchronized AppDatabase getInstance(Context context) {
         if (instance == null) {
@@ -18,8 +44,8 @@ public abstract class AppDatabase extends RoomDatabase {
                     context.getApplicationContext(),
                     AppDatabase.class,
                     "currency_converter_db"
-            ).build();
+            ).addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5).build();
         }
         return instance;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+package com.izpit.currencyconverter;
+
+import android.content.Context;
+import com.izpit.currencyconverter.History.ConversionHistory;
+import com.izpit.currencyconverter.History.ConversionHistoryDao;
+import com.izpit.currencyconverter.History.CurrencyCode;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Converts a CSV of {@code amount,from,to[,date]} rows against one
+ * {@link RateSnapshot}. Rows are read, converted and written one at a time, and
+ * history goes into a single transaction in fixed-size inserts, so memory use
+ * does not depend on the length of the file. A run that fails rolls back all of
+ * its history, so the same file can simply be converted again.
+ */
+final class BatchConverter {
+    static final int INSERT_CHUNK_SIZE = 500;
+    private static final String OUTPUT_HEADER = "amount,from,to,date,result\n";
+
+    /** Row counts for one run. */
+    static final class Result {
+        int converted;
+        int skipped;
+    }
+
+    private final AppDatabase database;
+    private final RateSnapshot snapshot;
+    private final CurrencyRegistry registry = CurrencyRegistry.getInstance();
+    private final FixedPointFormatter formatter = new FixedPointFormatter('.');
+
+    BatchConverter(Context context, RateSnapshot snapshot) {
+        this.database = AppDatabase.getInstance(context);
+        this.snapshot = snapshot;
+    }
+
+    Result convert(Reader input, Writer output) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return database.runInTransaction(() -> convertRows(input, output));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            Metrics.recordSince("db.batch.transaction", start);
+        }
+    }
+
+    // Runs inside the batch transaction; the insertAll calls join it rather than commit on their own.
+    private Result convertRows(Reader input, Writer output) {
+        ConversionHistoryDao dao = database.conversionHistoryDao();
+        // History code ids by registry id, resolved once per currency for the whole file.
+        int[] codeIds = new int[snapshot.size()];
+        Arrays.fill(codeIds, -1);
+        List<ConversionHistory> rows = new ArrayList<>(INSERT_CHUNK_SIZE);
+        long startedAt = System.currentTimeMillis();
+        Result result = new Result();
+
+        try {
+            BufferedReader reader = new BufferedReader(input);
+            output.write(OUTPUT_HEADER);
+            String line;
+            boolean first = true;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",", -1);
+                String amountText = fields[0].trim();
+                if (first && !looksNumeric(amountText)) {
+                    first = false;
+                    continue; // header row
+                }
+                first = false;
+                if (fields.length < 3) {
+                    result.skipped++;
+                    continue;
+                }
+
+                String date = fields.length > 3 ? fields[3].trim() : "";
+                int fromId = registry.idOf(fields[1].trim().toUpperCase(Locale.ROOT));
+                int toId = registry.idOf(fields[2].trim().toUpperCase(Locale.ROOT));
+                StringBuilder row = formatter.reset();
+                if (fromId < 0 || toId < 0 || !snapshot.hasRate(fromId) || !snapshot.hasRate(toId)) {
+                    result.skipped++;
+                    output.append(echo(row, fields, date));
+                    continue;
+                }
+
+                int fromScale = registry.scaleOf(fromId);
+                int toScale = registry.scaleOf(toId);
+                long amountMinor;
+                long resultMinor;
+                try {
+                    amountMinor = Money.parse(amountText, fromScale, Money.DEFAULT_ROUNDING);
+                    resultMinor = snapshot.convertMinor(fromId, toId, amountMinor, Money.DEFAULT_ROUNDING);
+                } catch (NumberFormatException | ArithmeticException e) {
+                    result.skipped++;
+                    output.append(echo(row, fields, date));
+                    continue;
+                }
+
+                formatter.appendMinorUnits(amountMinor, fromScale).append(',').append(registry.codeOf(fromId))
+                        .append(',').append(registry.codeOf(toId)).append(',').append(date).append(',');
+                formatter.appendMinorUnits(resultMinor, toScale).append('\n');
+                output.append(row);
+
+                rows.add(new ConversionHistory(
+                        resolveCodeId(dao, codeIds, fromId), resolveCodeId(dao, codeIds, toId),
+                        amountMinor, fromScale, resultMinor, toScale,
+                        timestampOf(date, startedAt)));
+                result.converted++;
+                if (rows.size() == INSERT_CHUNK_SIZE) {
+                    dao.insertAll(rows);
+                    rows.clear();
+                }
+            }
+            if (!rows.isEmpty()) {
+                dao.insertAll(rows);
+            }
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+
+    private int resolveCodeId(ConversionHistoryDao dao, int[] codeIds, int currencyId) {
+        int id = codeIds[currencyId];
+        if (id < 0) {
+            String code = registry.codeOf(currencyId);
+            dao.insertCode(new CurrencyCode(code));
+            id = dao.getCodeId(code);
+            codeIds[currencyId] = id;
+        }
+        return id;
+    }
+
+    /** The input row with an empty result column, for rows that could not be converted. */
+    private static StringBuilder echo(StringBuilder row, String[] fields, String date) {
+        return row.append(fields[0].trim()).append(',').append(fields[1].trim()).append(',')
+                .append(fields[2].trim()).append(',').append(date).append(",\n");
+    }
+
+    private static boolean looksNumeric(String text) {
+        return !text.isEmpty() && (Character.isDigit(text.charAt(0)) || text.charAt(0) == '-'
+                || text.charAt(0) == '+' || text.charAt(0) == '.');
+    }
+
+    private static long timestampOf(String date, long fallback) {
+        if (date.length() < 10) {
+            return fallback;
+        }
+        try {
+            // Local midnight, so the row lands in the same day bucket as the date it names.
+            return TimeSeries.localMidnight(TimeSeries.parseEpochDay(date), TimeZone.getDefault());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.izpit.currencyconverter;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failed calls
+ * in a row the circuit opens and calls are refused for {@code openMillis}; the
+ * first call after that is let through as a probe, and its outcome either closes
+ * the circuit or opens it for another period.
+ */
+final class CircuitBreaker {
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+    private long timesOpened;
+
+    CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openMillis * 1_000_000L;
+    }
+
+    /** Whether a call may go out now. A true result in the half-open state claims the single probe. */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return false;
+            }
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            probeInFlight = false;
+            timesOpened++;
+        }
+    }
+
+    /** For a call that was let through but ended without a verdict, such as one the user cancelled. */
+    synchronized void onAbandoned() {
+        probeInFlight = false;
+    }
+
+    synchronized State getState() { return state; }
+
+    synchronized long getTimesOpened() { return timesOpened; }
+}
@@ -3,34 +3,59 @@ package com.izpit.currencyconverter;
 import android.app.ActivityOptions;
 import android.content.Context;
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Vibrator;
 import android.os.VibrationEffect;
+import android.provider.DocumentsContract;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.Log;
 import android.view.MotionEvent;
-import android.widget.ArrayAdapter;
 import android.widget.AutoCompleteTextView;
 import android.widget.ImageButton;
 import android.widget.TextView;
 import android.widget.Toast;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import androidx.constraintlayout.widget.ConstraintLayout;
 import com.google.android.material.textfield.TextInputEditText;
-import org.json.JSONObject;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import okhttp3.Call;
 import okhttp3.Callback;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 public class Converter extends AppCompatActivity {
+    private static final String TAG = "Converter";
     private static final float MIN_DISTANCE = 150;
     private static final int VIBRATION_DURATION = 50;
+    private static final int HISTORY_DAYS = 365;
+    private static final long LIVE_CONVERSION_DELAY_MS = 300;
+    // Saved as codes: registry ids are assigned per process and do not survive process death.
+    private static final String FROM_CURRENCY_KEY = "fromCurrency";
+    private static final String TO_CURRENCY_KEY = "toCurrency";
 
     private float x1, x2;
 
@@ -40,18 +65,60 @@ public class Converter extends AppCompatActivity {
     private ImageButton swapButton;
     private ConstraintLayout mainLayout;
     private Vibrator vibrator;
-
-    private final OkHttpClient client = new OkHttpClient();
+    private RateChartView rateChart;
+    private Call historyCall;
+    // The fallback fetch for the conversion in progress; superseded by newer input.
+    private RateProvider.Cancellable conversionRequest = RateProvider.Cancellable.NONE;
+    // Bumped on the UI thread for every conversion; only the latest one may update resultTextView.
+    private int conversionSequence;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable liveConversion = this::convertAsTyped;
+    private final FixedPointFormatter resultFormatter = new FixedPointFormatter();
+
+    private OkHttpClient client;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private CurrencyRepository repository;
+    private volatile RateSnapshot snapshot;
+    private final CurrencyRegistry registry = CurrencyRegistry.getInstance();
+    private int fromCurrencyId = -1, toCurrencyId = -1;
+
+    private Uri batchInput;
+    private final ActivityResultLauncher<String[]> pickBatchInput = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(), this::onBatchInputPicked);
+    private final ActivityResultLauncher<String> pickBatchOutput = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("text/csv"), this::onBatchOutputPicked);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_converter);
+        repository = CurrencyRepository.getInstance(this);
+        client = HttpClientProvider.get(this);
 
         initializeViews();
         setupToolbar();
         setupListeners();
-        fetchCurrencies();
+        observeRepository();
+        restoreCurrencies(savedInstanceState);
+    }
+
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (fromCurrencyId >= 0) outState.putString(FROM_CURRENCY_KEY, registry.codeOf(fromCurrencyId));
+        if (toCurrencyId >= 0) outState.putString(TO_CURRENCY_KEY, registry.codeOf(toCurrencyId));
+    }
+
+    /** The fields restore their own text; the ids behind it have to be restored here. */
+    private void restoreCurrencies(Bundle savedInstanceState) {
+        if (savedInstanceState == null) {
+            return;
+        }
+        String from = savedInstanceState.getString(FROM_CURRENCY_KEY);
+        String to = savedInstanceState.getString(TO_CURRENCY_KEY);
+        if (from != null) fromCurrencyId = registry.intern(from);
+        if (to != null) toCurrencyId = registry.intern(to);
+        fetchRateHistory();
     }
 
     private void initializeViews() {
@@ -61,6 +128,7 @@ public class Converter extends AppCompatActivity {
         amountEditText = findViewById(R.id.amountEditText);
         resultTextView = findViewById(R.id.resultTextView);
         swapButton = findViewById(R.id.swapButton);
+        rateChart = findViewById(R.id.rateChart);
         vibrator = (Vibrator) getSystemService(Context.VIBRATOR_SERVICE);
     }
 
@@ -75,7 +143,31 @@ public class Converter extends AppCompatActivity {
     private void setupListeners() {
         mainLayout.setOnTouchListener((v, event) -> handleSwipe(event));
         swapButton.setOnClickListener(v -> swapCurrencies());
+        fromCurrencySpinner.setOnItemClickListener((parent, view, position, id) -> {
+            fromCurrencyId = ((CurrencyRegistry.Currency) parent.getItemAtPosition(position)).id;
+            fetchRateHistory();
+            scheduleLiveConversion();
+        });
+        toCurrencySpinner.setOnItemClickListener((parent, view, position, id) -> {
+            toCurrencyId = ((CurrencyRegistry.Currency) parent.getItemAtPosition(position)).id;
+            fetchRateHistory();
+            scheduleLiveConversion();
+        });
+        amountEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                scheduleLiveConversion();
+            }
+        });
         findViewById(R.id.convertButton).setOnClickListener(v -> performConversion());
+        findViewById(R.id.batchButton).setOnClickListener(v ->
+                pickBatchInput.launch(new String[] {"text/csv", "text/comma-separated-values", "text/plain"}));
     }
 
     private boolean handleSwipe(MotionEvent event) {
@@ -114,12 +206,36 @@ public class Converter extends AppCompatActivity {
         fromCurrencySpinner.setText(toCurrency, false);
         toCurrencySpinner.setText(fromCurrency, false);
 
+        int fromId = fromCurrencyId;
+        fromCurrencyId = toCurrencyId;
+        toCurrencyId = fromId;
+        fetchRateHistory();
+
         if (!amountEditText.getText().toString().isEmpty()) {
             performConversion();
         }
     }
 
+    private void scheduleLiveConversion() {
+        handler.removeCallbacks(liveConversion);
+        handler.postDelayed(liveConversion, LIVE_CONVERSION_DELAY_MS);
+    }
+
+    private void convertAsTyped() {
+        CharSequence amountText = amountEditText.getText();
+        if (amountText == null || amountText.length() == 0 || fromCurrencyId < 0 || toCurrencyId < 0) {
+            return;
+        }
+        try {
+            long amountMinor = Money.parse(amountText, registry.scaleOf(fromCurrencyId), Money.DEFAULT_ROUNDING);
+            convertCurrency(fromCurrencyId, toCurrencyId, amountMinor, false);
+        } catch (NumberFormatException | ArithmeticException e) {
+            // Partial input such as "." while typing, or too many digits; wait for the next keystroke.
+        }
+    }
+
     private void performConversion() {
+        handler.removeCallbacks(liveConversion);
         String amountStr = amountEditText.getText().toString();
         if (amountStr.isEmpty()) {
             amountEditText.setError("Please enter an amount");
@@ -135,97 +251,203 @@ public class Converter extends AppCompatActivity {
             }
         }
 
-        String fromCurrency = extractCurrencyCode(fromCurrencySpinner.getText().toString());
-        String toCurrency = extractCurrencyCode(toCurrencySpinner.getText().toString());
+        if (fromCurrencyId < 0 || toCurrencyId < 0) {
+            showToast("Please select both currencies");
+            return;
+        }
 
         try {
-            double amount = Double.parseDouble(amountStr);
-            convertCurrency(fromCurrency, toCurrency, amount);
+            long amountMinor = Money.parse(amountStr, registry.scaleOf(fromCurrencyId), Money.DEFAULT_ROUNDING);
+            convertCurrency(fromCurrencyId, toCurrencyId, amountMinor, true);
         } catch (NumberFormatException e) {
             amountEditText.setError("Invalid number format");
+        } catch (ArithmeticException e) {
+            amountEditText.setError("Amount is too large");
         }
     }
 
-    private String extractCurrencyCode(String fullCurrencyString) {
-        return fullCurrencyString.split(" - ")[0];
+    private void observeRepository() {
+        repository.getCatalog().observe(this, catalog -> setupSpinners());
+        repository.getSnapshot().observe(this, rates -> snapshot = rates);
     }
 
-    private void fetchCurrencies() {
-        Request request = new Request.Builder()
-                .url("https://api.frankfurter.app/currencies")
-                .build();
+    private void fetchRateHistory() {
+        if (historyCall != null) {
+            historyCall.cancel();
+            historyCall = null;
+        }
+        if (fromCurrencyId < 0 || toCurrencyId < 0 || fromCurrencyId == toCurrencyId) {
+            rateChart.setSeries(null);
+            return;
+        }
 
-        client.newCall(request).enqueue(new Callback() {
+        SimpleDateFormat isoDate = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        long start = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(HISTORY_DAYS);
+        String to = registry.codeOf(toCurrencyId);
+        String url = FrankfurterProvider.timeSeriesUrl(isoDate.format(new Date(start)),
+                registry.codeOf(fromCurrencyId), to);
+
+        historyCall = client.newCall(new Request.Builder().url(url).build());
+        historyCall.enqueue(new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
-                showToast("Failed to fetch currencies");
+                if (!call.isCanceled()) {
+                    showToast("Failed to fetch rate history");
+                }
             }
 
             @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                if (!response.isSuccessful()) {
-                    showToast("Error fetching currencies");
-                    return;
+            public void onResponse(Call call, Response response) {
+                try (ResponseBody body = response.body()) {
+                    if (!response.isSuccessful()) {
+                        return;
+                    }
+                    TimeSeries series = RatesParser.parseTimeSeries(body.charStream(), to);
+                    runOnUiThread(() -> {
+                        if (!call.isCanceled()) {
+                            rateChart.setSeries(series);
+                        }
+                    });
+                } catch (IOException e) {
+                    // Switching pairs cancels the call, which can surface here as a read failure.
+                    if (!call.isCanceled()) {
+                        showToast("Error parsing rate history");
+                    }
                 }
+            }
+        });
+    }
 
-                try {
-                    JSONObject json = new JSONObject(response.body().string());
-                    List<String> currencies = new ArrayList<>();
-                    Iterator<String> keys = json.keys();
+    private void setupSpinners() {
+        fromCurrencySpinner.setAdapter(new CurrencyAdapter());
+        toCurrencySpinner.setAdapter(new CurrencyAdapter());
+    }
 
-                    while (keys.hasNext()) {
-                        String code = keys.next();
-                        currencies.add(code + " - " + json.getString(code));
-                    }
+    private void convertCurrency(int fromId, int toId, long amountMinor, boolean record) {
+        int sequence = ++conversionSequence;
+        conversionRequest.cancel();
+        conversionRequest = RateProvider.Cancellable.NONE;
+
+        RateSnapshot rates = snapshot;
+        if (rates != null && rates.hasRate(fromId) && rates.hasRate(toId)) {
+            long resultMinor;
+            try {
+                resultMinor = rates.convertMinor(fromId, toId, amountMinor, Money.DEFAULT_ROUNDING);
+            } catch (ArithmeticException e) {
+                if (record) showToast("Result is too large");
+                return;
+            }
+            showResult(fromId, toId, amountMinor, resultMinor, record);
+            return;
+        }
+        requestConversion(sequence, fromId, toId, amountMinor, record);
+    }
 
-                    runOnUiThread(() -> setupSpinners(currencies));
-                } catch (Exception e) {
-                    showToast("Error parsing currencies");
+    // Used only until a local snapshot covering both currencies is available.
+    private void requestConversion(int sequence, int fromId, int toId, long amountMinor, boolean record) {
+        String to = registry.codeOf(toId);
+        conversionRequest = repository.refreshRates(fromId, false, new RateFetcher.Listener<RateSnapshot>() {
+            @Override
+            public void onResult(RateSnapshot rates) {
+                if (!rates.hasRate(fromId) || !rates.hasRate(toId)) {
+                    if (record) showConversionToast(sequence, "No rate available for " + to);
+                    return;
                 }
+                long resultMinor;
+                try {
+                    resultMinor = rates.convertMinor(fromId, toId, amountMinor, Money.DEFAULT_ROUNDING);
+                } catch (ArithmeticException e) {
+                    if (record) showConversionToast(sequence, "Result is too large");
+                    return;
+                }
+                runOnUiThread(() -> {
+                    if (sequence == conversionSequence) {
+                        showResult(fromId, toId, amountMinor, resultMinor, record);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(IOException e) {
+                if (record) showConversionToast(sequence, "Conversion failed");
+            }
+
+            @Override
+            public void onStale(RateSnapshot stale, IOException e) {
+                onResult(stale);
             }
         });
     }
 
-    private void setupSpinners(List<String> currencies) {
-        ArrayAdapter<String> adapter = new ArrayAdapter<>(this,
-                android.R.layout.simple_dropdown_item_1line, currencies);
-        fromCurrencySpinner.setAdapter(adapter);
-        toCurrencySpinner.setAdapter(adapter);
+    private void showResult(int fromId, int toId, long amountMinor, long resultMinor, boolean record) {
+        String to = registry.codeOf(toId);
+        int toScale = registry.scaleOf(toId);
+        if (record) {
+            // Save conversion to database using the nested ConversionHistory class
+            HistoryWriter.getInstance(this).enqueue(registry.codeOf(fromId), to,
+                    amountMinor, registry.scaleOf(fromId), resultMinor, toScale);
+        }
+        resultFormatter.reset();
+        resultFormatter.appendMinorUnits(resultMinor, toScale);
+        resultTextView.setText(resultFormatter.append(' ').append(to));
     }
 
-    private void convertCurrency(String from, String to, double amount) {
-        String url = String.format("https://api.frankfurter.app/latest?amount=%s&from=%s&to=%s",
-                amount, from, to);
+    private void onBatchInputPicked(Uri input) {
+        if (input == null) {
+            return;
+        }
+        batchInput = input;
+        pickBatchOutput.launch("converted.csv");
+    }
 
-        Request request = new Request.Builder().url(url).build();
+    private void onBatchOutputPicked(Uri output) {
+        Uri input = batchInput;
+        batchInput = null;
+        if (input == null || output == null) {
+            return;
+        }
+        RateSnapshot rates = snapshot;
+        if (rates == null) {
+            showToast("Rates are not loaded yet");
+            return;
+        }
 
-        client.newCall(request).enqueue(new Callback() {
-            @Override
-            public void onFailure(Call call, IOException e) {
-                showToast("Conversion failed");
+        showToast("Converting file...");
+        executor.execute(() -> {
+            try (Reader reader = new InputStreamReader(
+                         getContentResolver().openInputStream(input), StandardCharsets.UTF_8);
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(
+                         getContentResolver().openOutputStream(output), StandardCharsets.UTF_8))) {
+                BatchConverter.Result result = new BatchConverter(this, rates).convert(reader, writer);
+                showToast("Converted " + result.converted + " rows, skipped " + result.skipped);
+            } catch (IOException | RuntimeException e) {
+                discardOutput(output);
+                showToast("Batch conversion failed");
             }
+        });
+    }
 
-            @Override
-            public void onResponse(Call call, Response response)  {
-                if (!response.isSuccessful()) {
-                    showToast("Error during conversion");
-                    return;
-                }
+    /** Deletes a half-written batch output, or empties it if the provider will not delete it. */
+    private void discardOutput(Uri output) {
+        try {
+            if (DocumentsContract.deleteDocument(getContentResolver(), output)) {
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Fall through and truncate instead.
+        }
+        try (OutputStream stream = getContentResolver().openOutputStream(output, "wt")) {
+            // Opening in "wt" mode truncates the file.
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Could not discard batch output", e);
+        }
+    }
 
-                try {
-                    JSONObject json = new JSONObject(response.body().string());
-                    double result = json.getJSONObject("rates").getDouble(to);
-
-                    // Save conversion to database using the nested ConversionHistory class
-                    History.ConversionHistory conversion = new History.ConversionHistory(from, to, amount, result);
-                    new Thread(() -> AppDatabase.getInstance(Converter.this)
-                            .conversionHistoryDao()
-                            .insert(conversion)).start();
-
-                    runOnUiThread(() -> resultTextView.setText(String.format("%.2f %s", result, to)));
-                } catch (Exception e) {
-                    showToast("Error processing conversion");
-                }
+    /** Like {@link #showToast}, but dropped if conversion {@code sequence} has been replaced or cancelled. */
+    private void showConversionToast(int sequence, String message) {
+        runOnUiThread(() -> {
+            if (sequence == conversionSequence) {
+                Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
             }
         });
     }
@@ -233,4 +455,19 @@ public class Converter extends AppCompatActivity {
     private void showToast(String message) {
         runOnUiThread(() -> Toast.makeText(this, message, Toast.LENGTH_SHORT).show());
     }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        handler.removeCallbacks(liveConversion);
+        HistoryWriter.getInstance(this).flush();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        conversionSequence++;
+        conversionRequest.cancel();
+        executor.shutdown();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.izpit.currencyconverter;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.Filter;
+import android.widget.Filterable;
+import android.widget.TextView;
+
+/**
+ * Dropdown adapter for catalog currencies whose filter runs on {@link CurrencyIndex}
+ * instead of ArrayAdapter's per-item string scan.
+ */
+class CurrencyAdapter extends BaseAdapter implements Filterable {
+    private final CurrencyRegistry registry = CurrencyRegistry.getInstance();
+    private final CurrencyIndex.Search search = new CurrencyIndex.Search();
+    private int[] ids;
+
+    CurrencyAdapter() {
+        ids = CurrencyIndex.forRegistry(registry).allIds();
+    }
+
+    @Override
+    public int getCount() {
+        return ids.length;
+    }
+
+    @Override
+    public CurrencyRegistry.Currency getItem(int position) {
+        return registry.get(ids[position]);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return ids[position];
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        TextView view = (TextView) (convertView != null ? convertView
+                : LayoutInflater.from(parent.getContext())
+                        .inflate(android.R.layout.simple_dropdown_item_1line, parent, false));
+        view.setText(getItem(position).getDisplayName());
+        return view;
+    }
+
+    @Override
+    public Filter getFilter() {
+        return filter;
+    }
+
+    private final Filter filter = new Filter() {
+        @Override
+        protected FilterResults performFiltering(CharSequence constraint) {
+            int[] matches = search.update(CurrencyIndex.forRegistry(registry),
+                    constraint == null ? "" : constraint.toString());
+            FilterResults results = new FilterResults();
+            results.values = matches;
+            results.count = matches.length;
+            return results;
+        }
+
+        @Override
+        protected void publishResults(CharSequence constraint, FilterResults results) {
+            ids = (int[]) results.values;
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public CharSequence convertResultToString(Object resultValue) {
+            return ((CurrencyRegistry.Currency) resultValue).getDisplayName();
+        }
+    };
+}
@@ -0,0 +1,11 @@
+package com.izpit.currencyconverter;
+
+import android.app.Application;
+
+public class CurrencyApp extends Application {
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        CurrencyRepository.getInstance(this).warmUp();
+    }
+}
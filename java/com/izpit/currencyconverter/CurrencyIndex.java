@@ -0,0 +1,157 @@
+package com.izpit.currencyconverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Prefix index over catalog currency codes and name words. Lookups binary-search
+ * a sorted key array; {@link Search} additionally narrows the previous result
+ * when the query only grows, so typing does not rescan the whole catalog.
+ */
+final class CurrencyIndex {
+    private static CurrencyIndex cached;
+
+    private final CurrencyRegistry.Currency[] catalog;
+    private final String[] keys;
+    private final int[] keyIds;
+    // Lowercased search keys per registry id, for narrowing an existing result.
+    private final String[][] keysById;
+    // Results are listed by code; ids are assigned in intern order, which varies between runs.
+    private final int[] rankById;
+    private final int[] idsByCode;
+
+    private CurrencyIndex(CurrencyRegistry.Currency[] catalog, int registrySize) {
+        this.catalog = catalog;
+        keysById = new String[registrySize][];
+        List<String> allKeys = new ArrayList<>();
+        List<Integer> allIds = new ArrayList<>();
+        for (CurrencyRegistry.Currency currency : catalog) {
+            String[] currencyKeys = keysFor(currency);
+            keysById[currency.id] = currencyKeys;
+            for (String key : currencyKeys) {
+                allKeys.add(key);
+                allIds.add(currency.id);
+            }
+        }
+
+        CurrencyRegistry.Currency[] byCode = catalog.clone();
+        Arrays.sort(byCode, (a, b) -> a.code.compareTo(b.code));
+        idsByCode = new int[byCode.length];
+        rankById = new int[registrySize];
+        for (int rank = 0; rank < byCode.length; rank++) {
+            idsByCode[rank] = byCode[rank].id;
+            rankById[byCode[rank].id] = rank;
+        }
+
+        Integer[] order = new Integer[allKeys.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> allKeys.get(a).compareTo(allKeys.get(b)));
+        keys = new String[order.length];
+        keyIds = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = allKeys.get(order[i]);
+            keyIds[i] = allIds.get(order[i]);
+        }
+    }
+
+    /** Returns the index for the registry's current catalog, rebuilding it only when the catalog changed. */
+    static synchronized CurrencyIndex forRegistry(CurrencyRegistry registry) {
+        CurrencyRegistry.Currency[] catalog = registry.getCatalog();
+        if (cached == null || cached.catalog != catalog) {
+            cached = new CurrencyIndex(catalog, registry.size());
+        }
+        return cached;
+    }
+
+    /** Currency ids, ordered by code, with a code or name word starting with {@code query}. */
+    int[] lookup(String query) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return allIds();
+        }
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) low = mid + 1; else high = mid;
+        }
+
+        boolean[] seen = new boolean[keysById.length];
+        int[] result = new int[16];
+        int count = 0;
+        for (int i = low; i < keys.length && keys[i].startsWith(prefix); i++) {
+            int id = keyIds[i];
+            if (!seen[id]) {
+                seen[id] = true;
+                if (count == result.length) result = Arrays.copyOf(result, count * 2);
+                result[count++] = id;
+            }
+        }
+        // Sort by code rank instead of id, then map back; ranks are unique, so nothing is lost.
+        for (int i = 0; i < count; i++) result[i] = rankById[result[i]];
+        Arrays.sort(result, 0, count);
+        for (int i = 0; i < count; i++) result[i] = idsByCode[result[i]];
+        return Arrays.copyOf(result, count);
+    }
+
+    /** Keeps the ids from {@code candidates} that still match the longer {@code query}, in their order. */
+    int[] narrow(int[] candidates, String query) {
+        String prefix = normalize(query);
+        int[] result = new int[candidates.length];
+        int count = 0;
+        for (int id : candidates) {
+            for (String key : keysById[id]) {
+                if (key.startsWith(prefix)) {
+                    result[count++] = id;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /** Every catalog currency id, ordered by code. */
+    int[] allIds() {
+        return idsByCode.clone();
+    }
+
+    /** Stateful search for one input field; reuses the last result while the query keeps growing. */
+    static final class Search {
+        private CurrencyIndex index;
+        private String lastQuery = "";
+        private int[] lastResult;
+
+        synchronized int[] update(CurrencyIndex current, String query) {
+            String normalized = normalize(query);
+            if (current == index && lastResult != null
+                    && !lastQuery.isEmpty() && normalized.startsWith(lastQuery)) {
+                lastResult = current.narrow(lastResult, normalized);
+            } else {
+                lastResult = current.lookup(normalized);
+            }
+            index = current;
+            lastQuery = normalized;
+            return lastResult;
+        }
+    }
+
+    private static String[] keysFor(CurrencyRegistry.Currency currency) {
+        List<String> result = new ArrayList<>();
+        result.add(normalize(currency.code));
+        String name = currency.getName();
+        if (name != null) {
+            String lower = normalize(name);
+            result.add(lower);
+            for (String word : lower.split(" ")) {
+                if (!word.isEmpty() && !result.contains(word)) result.add(word);
+            }
+        }
+        return result.toArray(new String[0]);
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+}
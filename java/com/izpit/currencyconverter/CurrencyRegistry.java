@@ -0,0 +1,117 @@
+package com.izpit.currencyconverter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide table of known currencies. Each currency is interned once and
+ * given a compact int id that never changes for the life of the process, so
+ * rate vectors and adapters can index by id instead of comparing display strings.
+ */
+final class CurrencyRegistry {
+
+    static final class Currency {
+        final int id;
+        final String code;
+        /** ISO 4217 minor-unit digits, see {@link Money#scaleOf}. */
+        final int scale;
+        private volatile String name;
+        private volatile String displayName;
+
+        private Currency(int id, String code, String name) {
+            this.id = id;
+            this.code = code;
+            this.scale = Money.scaleOf(code);
+            setName(name);
+        }
+
+        String getName() { return name; }
+        String getDisplayName() { return displayName; }
+
+        private void setName(String name) {
+            this.name = name;
+            this.displayName = name == null ? code : code + " - " + name;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private static final CurrencyRegistry INSTANCE = new CurrencyRegistry();
+
+    private final Map<String, Currency> byCode = new ConcurrentHashMap<>();
+    private volatile Currency[] byId = new Currency[0];
+    private volatile Currency[] catalog = new Currency[0];
+
+    private CurrencyRegistry() {}
+
+    static CurrencyRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /** True once the /currencies catalog has been loaded in this process. */
+    boolean isLoaded() {
+        return catalog.length > 0;
+    }
+
+    /** Number of interned ids; valid ids are {@code 0 .. size() - 1}. */
+    int size() {
+        return byId.length;
+    }
+
+    /** Catalog currencies in the order /currencies listed them. */
+    Currency[] getCatalog() {
+        return catalog;
+    }
+
+    Currency get(int id) {
+        return byId[id];
+    }
+
+    String codeOf(int id) {
+        return byId[id].code;
+    }
+
+    int scaleOf(int id) {
+        return byId[id].scale;
+    }
+
+    /** Returns the id for {@code code}, or -1 if it has never been interned. */
+    int idOf(String code) {
+        Currency currency = byCode.get(code);
+        return currency == null ? -1 : currency.id;
+    }
+
+    /** Returns the id for {@code code}, assigning a new one if needed. */
+    synchronized int intern(String code) {
+        Currency currency = byCode.get(code);
+        return currency != null ? currency.id : add(code, null).id;
+    }
+
+    synchronized void loadCatalog(List<String> codes, List<String> names) {
+        Currency[] loaded = new Currency[codes.size()];
+        for (int i = 0; i < loaded.length; i++) {
+            Currency currency = byCode.get(codes.get(i));
+            if (currency == null) {
+                currency = add(codes.get(i), names.get(i));
+            } else {
+                currency.setName(names.get(i));
+            }
+            loaded[i] = currency;
+        }
+        catalog = loaded;
+    }
+
+    private Currency add(String code, String name) {
+        Currency[] grown = new Currency[byId.length + 1];
+        System.arraycopy(byId, 0, grown, 0, byId.length);
+        Currency currency = new Currency(byId.length, code, name);
+        grown[currency.id] = currency;
+        byCode.put(code, currency);
+        byId = grown;
+        return currency;
+    }
+}
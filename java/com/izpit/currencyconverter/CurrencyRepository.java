@@ -0,0 +1,152 @@
+package com.izpit.currencyconverter;
+
+import android.content.Context;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+import com.izpit.currencyconverter.History.ConversionRow;
+import com.izpit.currencyconverter.History.HistoryPagingSource;
+import com.izpit.currencyconverter.History.PageKey;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide owner of the currency catalog, the latest rate snapshot and the
+ * history pages. {@link CurrencyApp} warms it when the process starts, so the
+ * screens reached by swiping render from memory instead of each refetching what
+ * the previous one already had.
+ */
+final class CurrencyRepository {
+    private static CurrencyRepository instance;
+
+    private final RateStore rateStore;
+    private final RateFetcher fetcher;
+    private final CurrencyRegistry registry = CurrencyRegistry.getInstance();
+    // Two threads so the catalog and the snapshot are restored from disk in parallel.
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final MutableLiveData<CurrencyRegistry> catalog = new MutableLiveData<>();
+    private final MutableLiveData<RateSnapshot> snapshot = new MutableLiveData<>();
+    private final LiveData<PagingData<ConversionRow>> historyPages;
+    private volatile RateSnapshot latest;
+
+    private CurrencyRepository(Context context) {
+        rateStore = new RateStore(context);
+        fetcher = RateFetcher.getInstance(context);
+        AppDatabase database = AppDatabase.getInstance(context);
+        historyPages = PagingLiveData.getLiveData(new Pager<PageKey, ConversionRow>(
+                new PagingConfig(History.PAGE_SIZE, History.PAGE_SIZE, false),
+                () -> new HistoryPagingSource(database)));
+    }
+
+    static synchronized CurrencyRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new CurrencyRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /** Restores the catalog and the latest snapshot from disk and refreshes whichever is stale. */
+    void warmUp() {
+        executor.execute(() -> {
+            boolean fresh = registry.isLoaded() || rateStore.restoreCatalog();
+            if (registry.isLoaded()) {
+                catalog.postValue(registry);
+            }
+            if (!fresh) {
+                refreshCatalog(null);
+            }
+        });
+        executor.execute(() -> {
+            RateSnapshot stored = rateStore.loadLatestSnapshot();
+            if (stored != null) {
+                publish(stored);
+            }
+            if (stored == null || !rateStore.isFresh(stored.getFetchedAt())) {
+                refreshRates(-1, false, null);
+            }
+        });
+    }
+
+    /** Emits the registry once its catalog is loaded, and again whenever it is refetched. */
+    LiveData<CurrencyRegistry> getCatalog() { return catalog; }
+
+    /** Emits the most recent snapshot for any base; screens rebase it to the base they show. */
+    LiveData<RateSnapshot> getSnapshot() { return snapshot; }
+
+    LiveData<PagingData<ConversionRow>> getHistoryPages() { return historyPages; }
+
+    @Nullable
+    RateSnapshot getLatestSnapshot() { return latest; }
+
+    boolean isFresh(RateSnapshot rates) {
+        return rates != null && rateStore.isFresh(rates.getFetchedAt());
+    }
+
+    void refreshCatalog(@Nullable RateFetcher.Listener<CurrencyRegistry> listener) {
+        fetcher.fetchCatalog(new RateFetcher.Listener<CurrencyRegistry>() {
+            @Override
+            public void onResult(CurrencyRegistry result) {
+                catalog.postValue(result);
+                if (listener != null) listener.onResult(result);
+            }
+
+            @Override
+            public void onError(IOException e) {
+                if (listener != null) listener.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Fetches /latest for {@code baseId} (the API default when negative) unless the
+     * snapshot in memory is fresh and {@code force} is false. When the fetch fails and
+     * the snapshot in memory covers the base, it is handed to
+     * {@link RateFetcher.Listener#onStale} instead of reporting an error. Cancelling
+     * the returned handle stops {@code listener} from being called.
+     */
+    RateProvider.Cancellable refreshRates(int baseId, boolean force,
+                                          @Nullable RateFetcher.Listener<RateSnapshot> listener) {
+        RateSnapshot current = latest;
+        if (!force && isFresh(current) && (baseId < 0 || current.hasRate(baseId))) {
+            if (listener != null) listener.onResult(current);
+            return RateProvider.Cancellable.NONE;
+        }
+        return fetcher.fetchLatest(baseId, new RateFetcher.Listener<RateSnapshot>() {
+            @Override
+            public void onResult(RateSnapshot result) {
+                publish(result);
+                if (listener != null) listener.onResult(result);
+            }
+
+            @Override
+            public void onError(IOException e) {
+                if (listener == null) {
+                    return;
+                }
+                RateSnapshot stale = latest;
+                if (stale != null && (baseId < 0 || stale.hasRate(baseId))) {
+                    listener.onStale(stale, e);
+                } else {
+                    listener.onError(e);
+                }
+            }
+        });
+    }
+
+    /** Makes {@code rates} the current snapshot unless a newer one is already held. */
+    void publish(RateSnapshot rates) {
+        synchronized (this) {
+            RateSnapshot current = latest;
+            if (current != null && current.getFetchedAt() > rates.getFetchedAt()) {
+                return;
+            }
+            latest = rates;
+        }
+        snapshot.postValue(rates);
+    }
+}
@@ -0,0 +1,86 @@
+package com.izpit.currencyconverter;
+
+/**
+ * SQL for the schema migrations and for rebuilding conversion_totals. It is kept
+ * apart from the Room classes so the migrations can be replayed against plain
+ * SQLite in JVM tests; {@link AppDatabase} runs each array in order.
+ */
+final class DatabaseSchema {
+    static final String[] MIGRATE_1_2 = {
+            "CREATE TABLE IF NOT EXISTS `rate_snapshots` (`base` TEXT NOT NULL, "
+                    + "`fetchedAt` INTEGER NOT NULL, `codes` TEXT NOT NULL, `rates` BLOB NOT NULL, "
+                    + "PRIMARY KEY(`base`))",
+            "CREATE TABLE IF NOT EXISTS `currencies` (`code` TEXT NOT NULL, "
+                    + "`name` TEXT NOT NULL, `position` INTEGER NOT NULL, `fetchedAt` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`code`))"
+    };
+
+    static final String[] MIGRATE_2_3 = {
+            "CREATE INDEX IF NOT EXISTS `index_conversion_history_timestamp` "
+                    + "ON `conversion_history` (`timestamp`)"
+    };
+
+    // Moves history onto integer currency ids and fixed-point amounts. Existing doubles
+    // are rounded to two decimal places, which is what the History screen always showed.
+    static final String[] MIGRATE_3_4 = {
+            "CREATE TABLE IF NOT EXISTS `currency_codes` (`id` INTEGER PRIMARY KEY "
+                    + "AUTOINCREMENT NOT NULL, `code` TEXT NOT NULL)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS `index_currency_codes_code` "
+                    + "ON `currency_codes` (`code`)",
+            "INSERT OR IGNORE INTO `currency_codes` (`code`) "
+                    + "SELECT COALESCE(`fromCurrency`, '') FROM `conversion_history` "
+                    + "UNION SELECT COALESCE(`toCurrency`, '') FROM `conversion_history`",
+
+            "CREATE TABLE IF NOT EXISTS `conversion_history_new` (`id` INTEGER PRIMARY KEY "
+                    + "AUTOINCREMENT NOT NULL, `fromCurrencyId` INTEGER NOT NULL, "
+                    + "`toCurrencyId` INTEGER NOT NULL, `amountMinor` INTEGER NOT NULL, "
+                    + "`amountScale` INTEGER NOT NULL, `resultMinor` INTEGER NOT NULL, "
+                    + "`resultScale` INTEGER NOT NULL, `timestamp` INTEGER NOT NULL)",
+            "INSERT INTO `conversion_history_new` (`id`, `fromCurrencyId`, `toCurrencyId`, "
+                    + "`amountMinor`, `amountScale`, `resultMinor`, `resultScale`, `timestamp`) "
+                    + "SELECT h.`id`, f.`id`, t.`id`, CAST(ROUND(h.`amount` * 100) AS INTEGER), 2, "
+                    + "CAST(ROUND(h.`result` * 100) AS INTEGER), 2, h.`timestamp` "
+                    + "FROM `conversion_history` h "
+                    + "JOIN `currency_codes` f ON f.`code` = COALESCE(h.`fromCurrency`, '') "
+                    + "JOIN `currency_codes` t ON t.`code` = COALESCE(h.`toCurrency`, '')",
+            "DROP TABLE `conversion_history`",
+            "ALTER TABLE `conversion_history_new` RENAME TO `conversion_history`",
+            "CREATE INDEX IF NOT EXISTS `index_conversion_history_timestamp` "
+                    + "ON `conversion_history` (`timestamp`)",
+            "CREATE INDEX IF NOT EXISTS "
+                    + "`index_conversion_history_fromCurrencyId_toCurrencyId_timestamp` "
+                    + "ON `conversion_history` (`fromCurrencyId`, `toCurrencyId`, `timestamp`)"
+    };
+
+    private static final String SCALED_AMOUNT = "amountMinor * CASE amountScale "
+            + "WHEN 0 THEN 10000 WHEN 1 THEN 1000 WHEN 2 THEN 100 WHEN 3 THEN 10 ELSE 1 END";
+    // SQLite's 'localtime' reads the same device zone as History.ConversionTotal.dayOf;
+    // 2440587.5 is the Julian day of the epoch.
+    private static final String LOCAL_TIME = "timestamp / 1000, 'unixepoch', 'localtime'";
+    static final String REBUILD_DAY_TOTALS = "INSERT INTO conversion_totals "
+            + "SELECT 0, CAST(julianday(date(" + LOCAL_TIME + ")) - 2440587.5 AS INTEGER), "
+            + "fromCurrencyId, toCurrencyId, COUNT(*), SUM(" + SCALED_AMOUNT + ") "
+            + "FROM conversion_history GROUP BY 2, 3, 4";
+    static final String REBUILD_MONTH_TOTALS = "INSERT INTO conversion_totals "
+            + "SELECT 1, (CAST(strftime('%Y', " + LOCAL_TIME + ") AS INTEGER) - 1970) * 12 "
+            + "+ CAST(strftime('%m', " + LOCAL_TIME + ") AS INTEGER) - 1, "
+            + "fromCurrencyId, toCurrencyId, COUNT(*), SUM(" + SCALED_AMOUNT + ") "
+            + "FROM conversion_history GROUP BY 2, 3, 4";
+    static final String REBUILD_ALL_TIME_TOTALS = "INSERT INTO conversion_totals "
+            + "SELECT 2, 0, fromCurrencyId, toCurrencyId, COUNT(*), SUM(" + SCALED_AMOUNT + ") "
+            + "FROM conversion_history GROUP BY 3, 4";
+
+    // Adds the pre-aggregated history totals and fills them from the existing rows.
+    static final String[] MIGRATE_4_5 = {
+            "CREATE TABLE IF NOT EXISTS `conversion_totals` (`period` INTEGER NOT NULL, "
+                    + "`bucket` INTEGER NOT NULL, `fromCurrencyId` INTEGER NOT NULL, "
+                    + "`toCurrencyId` INTEGER NOT NULL, `conversionCount` INTEGER NOT NULL, "
+                    + "`amountTotal` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`period`, `bucket`, `fromCurrencyId`, `toCurrencyId`))",
+            REBUILD_DAY_TOTALS,
+            REBUILD_MONTH_TOTALS,
+            REBUILD_ALL_TIME_TOTALS
+    };
+
+    private DatabaseSchema() {}
+}
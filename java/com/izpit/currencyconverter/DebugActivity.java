@@ -0,0 +1,67 @@
+package com.izpit.currencyconverter;
+
+import android.os.Bundle;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.appcompat.app.AppCompatActivity;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Hidden screen, opened by long-pressing the base currency title, that shows
+ * the {@link Metrics} histograms next to the cache, fetcher, fetch policy,
+ * rate provider and history writer counters.
+ */
+public class DebugActivity extends AppCompatActivity {
+    private TextView metricsText;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_debug);
+
+        metricsText = findViewById(R.id.metricsText);
+        findViewById(R.id.refreshButton).setOnClickListener(v -> showMetrics());
+        findViewById(R.id.resetButton).setOnClickListener(v -> {
+            Metrics.reset();
+            showMetrics();
+        });
+        findViewById(R.id.dumpButton).setOnClickListener(v -> dumpMetrics());
+        showMetrics();
+    }
+
+    private void showMetrics() {
+        RateFetcher fetcher = RateFetcher.getInstance(this);
+        HistoryWriter writer = HistoryWriter.getInstance(this);
+        FetchPolicy policy = HttpClientProvider.getFetchPolicy();
+        StringBuilder text = new StringBuilder(Metrics.format());
+        text.append("\nhttp cache  requests=").append(HttpClientProvider.getRequestCount())
+                .append("  network=").append(HttpClientProvider.getNetworkCount())
+                .append("  hitRatio=").append(Math.round(HttpClientProvider.getCacheHitRatio() * 100)).append('%')
+                .append("  bytesSaved=").append(HttpClientProvider.getBytesSaved())
+                .append("\nfetcher  network=").append(fetcher.getNetworkRequestCount())
+                .append("  merged=").append(fetcher.getMergedRequestCount())
+                .append("  throttled=").append(fetcher.getThrottledRequestCount())
+                .append("\nfetch policy  retries=").append(policy.getRetryCount())
+                .append("  shortCircuits=").append(policy.getShortCircuitCount())
+                .append(policy.describeBreakers())
+                .append(RateRouter.getInstance(this).describe())
+                .append("\nhistory writer  queued=").append(writer.getQueueDepth())
+                .append("  flushes=").append(writer.getFlushCount())
+                .append("  rows=").append(writer.getRowsWritten())
+                .append("  failed=").append(writer.getFailedFlushCount())
+                .append("  dropped=").append(writer.getRowsDropped())
+                .append("  lastFlush=").append(writer.getLastFlushLatencyMillis()).append("ms")
+                .append("  maxFlush=").append(writer.getMaxFlushLatencyMillis()).append("ms");
+        metricsText.setText(text);
+    }
+
+    private void dumpMetrics() {
+        try {
+            File file = Metrics.dumpToFile(this);
+            Toast.makeText(this, "Saved " + file.getName(), Toast.LENGTH_SHORT).show();
+        } catch (IOException e) {
+            Toast.makeText(this, "Failed to save metrics", Toast.LENGTH_SHORT).show();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.izpit.currencyconverter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor that gives every call a timeout for its endpoint,
+ * retries transient failures with jittered exponential backoff, and keeps one
+ * {@link CircuitBreaker} per host. While a host's circuit is open calls fail at
+ * once with {@link CircuitOpenException}, so callers can fall back to the last
+ * good data instead of waiting on a service that is down.
+ *
+ * <p>It has no Android dependencies and can be exercised against a mock server
+ * that injects latency and errors.
+ */
+final class FetchPolicy implements Interceptor {
+    static final int MAX_ATTEMPTS = 3;
+    static final long BASE_BACKOFF_MS = 250;
+    static final long MAX_BACKOFF_MS = 2000;
+    static final int FAILURE_THRESHOLD = 3;
+    static final long OPEN_MILLIS = 30_000;
+
+    /** Thrown instead of calling a host whose circuit is open. */
+    static final class CircuitOpenException extends IOException {
+        CircuitOpenException(String host) {
+            super("Circuit open for " + host);
+        }
+    }
+
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong shortCircuits = new AtomicLong();
+
+    FetchPolicy() {
+        this(MAX_ATTEMPTS, BASE_BACKOFF_MS, FAILURE_THRESHOLD, OPEN_MILLIS);
+    }
+
+    FetchPolicy(int maxAttempts, long baseBackoffMs, int failureThreshold, long openMillis) {
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String host = request.url().host();
+        CircuitBreaker breaker = breakerFor(host);
+        if (!breaker.tryAcquire()) {
+            shortCircuits.incrementAndGet();
+            throw new CircuitOpenException(host);
+        }
+
+        Chain timed = withEndpointTimeouts(chain, TimingEventListener.endpointOf(request.url()));
+        boolean retryable = "GET".equals(request.method());
+        boolean settled = false;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                Response response;
+                try {
+                    response = timed.proceed(request);
+                } catch (IOException e) {
+                    if (chain.call().isCanceled()) {
+                        throw e;
+                    }
+                    if (!retryable || attempt >= maxAttempts) {
+                        breaker.onFailure();
+                        settled = true;
+                        throw e;
+                    }
+                    backOff(attempt);
+                    continue;
+                }
+
+                if (!isTransient(response.code())) {
+                    // Any other answer, even a 404, means the host is up.
+                    breaker.onSuccess();
+                    settled = true;
+                    return response;
+                }
+                if (!retryable || attempt >= maxAttempts) {
+                    breaker.onFailure();
+                    settled = true;
+                    return response;
+                }
+                response.close();
+                backOff(attempt);
+            }
+        } finally {
+            if (!settled) {
+                breaker.onAbandoned();
+            }
+        }
+    }
+
+    CircuitBreaker breakerFor(String host) {
+        CircuitBreaker breaker = breakers.get(host);
+        if (breaker == null) {
+            breaker = breakers.computeIfAbsent(host,
+                    key -> new CircuitBreaker(failureThreshold, openMillis));
+        }
+        return breaker;
+    }
+
+    long getRetryCount() { return retries.get(); }
+    long getShortCircuitCount() { return shortCircuits.get(); }
+
+    /** Breaker state per host, for the debug screen. */
+    String describeBreakers() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, CircuitBreaker> entry : breakers.entrySet()) {
+            CircuitBreaker breaker = entry.getValue();
+            text.append("  ").append(entry.getKey()).append('=').append(breaker.getState())
+                    .append(" opened=").append(breaker.getTimesOpened());
+        }
+        return text.toString();
+    }
+
+    private static boolean isTransient(int code) {
+        return code == 408 || code == 429 || code >= 500;
+    }
+
+    /**
+     * The catalog is larger but rarely needed, /latest is on the critical path of
+     * every screen, and a time series can take the server a while to assemble.
+     */
+    private static Chain withEndpointTimeouts(Chain chain, String endpoint) {
+        switch (endpoint) {
+            case "latest":
+                return chain.withConnectTimeout(5, TimeUnit.SECONDS).withReadTimeout(5, TimeUnit.SECONDS);
+            case "currencies":
+                return chain.withConnectTimeout(5, TimeUnit.SECONDS).withReadTimeout(10, TimeUnit.SECONDS);
+            case "timeseries":
+                return chain.withConnectTimeout(5, TimeUnit.SECONDS).withReadTimeout(15, TimeUnit.SECONDS);
+            default:
+                return chain;
+        }
+    }
+
+    /** Sleeps a random time between half and all of {@code base * 2^(attempt-1)}, capped. */
+    private void backOff(int attempt) throws IOException {
+        retries.incrementAndGet();
+        long ceiling = Math.min(MAX_BACKOFF_MS, baseBackoffMs << (attempt - 1));
+        long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off");
+        }
+    }
+}
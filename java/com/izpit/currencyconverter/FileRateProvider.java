@@ -0,0 +1,63 @@
+package com.izpit.currencyconverter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Rates read from a file in the /latest JSON format. It stands in for the
+ * network in tests and offline demos: {@link RateRouter} only races it when
+ * {@link #FILE_NAME} exists in the app's files directory. An optional delay
+ * makes it usable for exercising the latency budget.
+ */
+final class FileRateProvider implements RateProvider {
+    static final String FILE_NAME = "rates-latest.json";
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final File file;
+    private final long delayMillis;
+
+    FileRateProvider(File file, long delayMillis) {
+        this.file = file;
+        this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public Cancellable fetchLatest(int baseId, RateProvider.Listener<RateSnapshot> listener) {
+        Future<?> task = executor.submit(() -> {
+            RateSnapshot snapshot;
+            try {
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+                try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                    snapshot = RatesParser.parseLatest(reader);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                listener.onError(e instanceof IOException ? (IOException) e : new IOException(e));
+                return;
+            }
+            if (baseId >= 0 && !snapshot.hasRate(baseId)) {
+                listener.onError(new IOException(file.getName() + " does not quote "
+                        + CurrencyRegistry.getInstance().codeOf(baseId)));
+                return;
+            }
+            listener.onResult(baseId < 0 ? snapshot : snapshot.rebase(baseId));
+        });
+        return () -> task.cancel(true);
+    }
+}
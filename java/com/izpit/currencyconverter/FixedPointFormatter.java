@@ -0,0 +1,76 @@
+package com.izpit.currencyconverter;
+
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Formats fixed-point numbers into one reused buffer instead of going through
+ * String.format. Not thread-safe; give each worker its own instance.
+ */
+final class FixedPointFormatter {
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+            10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private final StringBuilder buffer = new StringBuilder(48);
+    private final char decimalSeparator;
+
+    FixedPointFormatter() {
+        this(DecimalFormatSymbols.getInstance().getDecimalSeparator());
+    }
+
+    FixedPointFormatter(char decimalSeparator) {
+        this.decimalSeparator = decimalSeparator;
+    }
+
+    static long powerOfTen(int exponent) {
+        return POWERS_OF_TEN[exponent];
+    }
+
+    /** Clears the shared buffer and returns it for the next value. */
+    StringBuilder reset() {
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    /** Appends {@code value} rounded half-up to {@code decimals} places. */
+    StringBuilder appendDouble(double value, int decimals) {
+        long scaled = Math.round(Math.abs(value) * POWERS_OF_TEN[decimals]);
+        if (value < 0 && scaled != 0) {
+            buffer.append('-');
+        }
+        return appendUnsigned(scaled, decimals);
+    }
+
+    /** Appends a value held as {@code minorUnits / 10^scale}. */
+    StringBuilder appendMinorUnits(long minorUnits, int scale) {
+        if (minorUnits < 0) {
+            minorUnits = Math.negateExact(minorUnits);
+            buffer.append('-');
+        }
+        return appendUnsigned(minorUnits, scale);
+    }
+
+    StringBuilder append(CharSequence text) {
+        return buffer.append(text);
+    }
+
+    StringBuilder append(char c) {
+        return buffer.append(c);
+    }
+
+    private StringBuilder appendUnsigned(long scaled, int decimals) {
+        if (decimals <= 0) {
+            return buffer.append(scaled);
+        }
+        long unit = POWERS_OF_TEN[decimals];
+        buffer.append(scaled / unit).append(decimalSeparator);
+        long fraction = scaled % unit;
+        for (int digits = decimals - 1; digits > 0 && fraction < POWERS_OF_TEN[digits]; digits--) {
+            buffer.append('0');
+        }
+        return buffer.append(fraction);
+    }
+}
@@ -0,0 +1,74 @@
+package com.izpit.currencyconverter;
+
+import java.io.IOException;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Rates from a Frankfurter deployment. The public API is served from two hosts
+ * with the same ECB data, so the app runs one provider per host and each gets
+ * its own circuit breaker in {@link FetchPolicy}. All Frankfurter URLs are built
+ * here.
+ */
+final class FrankfurterProvider implements RateProvider {
+    static final String APP_URL = "https://api.frankfurter.app";
+    static final String DEV_URL = "https://api.frankfurter.dev/v1";
+
+    private final String name;
+    private final String baseUrl;
+    private final OkHttpClient client;
+
+    FrankfurterProvider(String name, String baseUrl, OkHttpClient client) {
+        this.name = name;
+        this.baseUrl = baseUrl;
+        this.client = client;
+    }
+
+    static String currenciesUrl() {
+        return APP_URL + "/currencies";
+    }
+
+    /** Daily rates for one pair from {@code startDate} (yyyy-MM-dd) until today. */
+    static String timeSeriesUrl(String startDate, String fromCode, String toCode) {
+        return APP_URL + "/" + startDate + "..?from=" + fromCode + "&to=" + toCode;
+    }
+
+    String latestUrl(int baseId) {
+        return baseId < 0 ? baseUrl + "/latest"
+                : baseUrl + "/latest?base=" + CurrencyRegistry.getInstance().codeOf(baseId);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public RateProvider.Cancellable fetchLatest(int baseId, RateProvider.Listener<RateSnapshot> listener) {
+        Call call = client.newCall(new Request.Builder().url(latestUrl(baseId)).build());
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                listener.onError(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (ResponseBody body = response.body()) {
+                    if (!response.isSuccessful()) {
+                        listener.onError(new IOException("HTTP " + response.code() + " from " + name));
+                        return;
+                    }
+                    listener.onResult(RatesParser.parseLatest(body.charStream()));
+                } catch (IOException | RuntimeException e) {
+                    listener.onError(e instanceof IOException ? (IOException) e : new IOException(e));
+                }
+            }
+        });
+        return call::cancel;
+    }
+}
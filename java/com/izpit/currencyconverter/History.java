@@ -2,30 +2,67 @@ package com.izpit.currencyconverter;
 
 import android.app.ActivityOptions;
 import android.content.Intent;
+import android.database.Cursor;
+import android.net.Uri;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
+import android.widget.Toast;
 import androidx.activity.EdgeToEdge;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
 import androidx.lifecycle.LiveData;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.LoadState;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataAdapter;
+import androidx.paging.PagingLiveData;
+import androidx.paging.PagingState;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.room.Dao;
+import androidx.room.Embedded;
 import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.Insert;
+import androidx.room.InvalidationTracker;
+import androidx.room.OnConflictStrategy;
 import androidx.room.PrimaryKey;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -33,52 +70,380 @@ public class History extends AppCompatActivity {
 
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
 
-    @Entity(tableName = "conversion_history")
+    static final int PAGE_SIZE = 30;
+    private static final int SUMMARY_PAIRS = 3;
+
+    @Entity(tableName = "currency_codes", indices = {@Index(value = "code", unique = true)})
+    public static class CurrencyCode {
+        @PrimaryKey(autoGenerate = true)
+        private int id;
+        @NonNull
+        private String code;
+
+        public CurrencyCode(@NonNull String code) {
+            this.code = code;
+        }
+
+        public int getId() { return id; }
+        @NonNull public String getCode() { return code; }
+
+        public void setId(int id) { this.id = id; }
+    }
+
+    @Entity(tableName = "conversion_history", indices = {
+            @Index("timestamp"),
+            @Index({"fromCurrencyId", "toCurrencyId", "timestamp"})
+    })
     public static class ConversionHistory {
         @PrimaryKey(autoGenerate = true)
         private int id;
-        private String fromCurrency;
-        private String toCurrency;
-        private double amount;
-        private double result;
+        private int fromCurrencyId;
+        private int toCurrencyId;
+        private long amountMinor;
+        private int amountScale;
+        private long resultMinor;
+        private int resultScale;
         private long timestamp;
 
-        public ConversionHistory(String fromCurrency, String toCurrency, double amount, double result) {
-            this.fromCurrency = fromCurrency;
-            this.toCurrency = toCurrency;
-            this.amount = amount;
-            this.result = result;
-            this.timestamp = System.currentTimeMillis();
+        public ConversionHistory(int fromCurrencyId, int toCurrencyId, long amountMinor, int amountScale,
+                                 long resultMinor, int resultScale, long timestamp) {
+            this.fromCurrencyId = fromCurrencyId;
+            this.toCurrencyId = toCurrencyId;
+            this.amountMinor = amountMinor;
+            this.amountScale = amountScale;
+            this.resultMinor = resultMinor;
+            this.resultScale = resultScale;
+            this.timestamp = timestamp;
         }
 
         // Getters
         public int getId() { return id; }
-        public String getFromCurrency() { return fromCurrency; }
-        public String getToCurrency() { return toCurrency; }
-        public double getAmount() { return amount; }
-        public double getResult() { return result; }
+        public int getFromCurrencyId() { return fromCurrencyId; }
+        public int getToCurrencyId() { return toCurrencyId; }
+        public long getAmountMinor() { return amountMinor; }
+        public int getAmountScale() { return amountScale; }
+        public long getResultMinor() { return resultMinor; }
+        public int getResultScale() { return resultScale; }
         public long getTimestamp() { return timestamp; }
+        public double getAmount() { return amountMinor / Math.pow(10, amountScale); }
+        public double getResult() { return resultMinor / Math.pow(10, resultScale); }
 
         // Setters
         public void setId(int id) { this.id = id; }
         public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
     }
 
+    /**
+     * Running totals per currency pair and period. {@link ConversionHistoryDao} adds to
+     * them in the same transaction as every history insert, so the summary reads a
+     * handful of rows instead of scanning conversion_history.
+     */
+    @Entity(tableName = "conversion_totals",
+            primaryKeys = {"period", "bucket", "fromCurrencyId", "toCurrencyId"})
+    public static class ConversionTotal {
+        // Day and month buckets follow the device's time zone, so "today" matches the clock.
+        static final int PERIOD_DAY = 0;   // bucket is the local epoch day, see dayOf
+        static final int PERIOD_MONTH = 1; // bucket is (year - 1970) * 12 + month - 1 of the local date
+        static final int PERIOD_ALL = 2;   // bucket is always 0
+        // Amounts are summed in ten-thousandths so rows of any supported scale add up exactly.
+        static final int AMOUNT_SCALE = 4;
+
+        private int period;
+        private int bucket;
+        private int fromCurrencyId;
+        private int toCurrencyId;
+        private int conversionCount;
+        private long amountTotal;
+
+        public ConversionTotal(int period, int bucket, int fromCurrencyId, int toCurrencyId,
+                               int conversionCount, long amountTotal) {
+            this.period = period;
+            this.bucket = bucket;
+            this.fromCurrencyId = fromCurrencyId;
+            this.toCurrencyId = toCurrencyId;
+            this.conversionCount = conversionCount;
+            this.amountTotal = amountTotal;
+        }
+
+        public int getPeriod() { return period; }
+        public int getBucket() { return bucket; }
+        public int getFromCurrencyId() { return fromCurrencyId; }
+        public int getToCurrencyId() { return toCurrencyId; }
+        public int getConversionCount() { return conversionCount; }
+        public long getAmountTotal() { return amountTotal; }
+
+        static int dayOf(long timestamp) {
+            return TimeSeries.localEpochDay(timestamp, TimeZone.getDefault());
+        }
+
+        static long scaledAmount(ConversionHistory conversion) {
+            return conversion.getAmountMinor()
+                    * FixedPointFormatter.powerOfTen(AMOUNT_SCALE - conversion.getAmountScale());
+        }
+
+        /** Sums {@code conversions} into one total per (period, bucket, pair) they touch. */
+        static Collection<ConversionTotal> fold(List<ConversionHistory> conversions) {
+            Map<String, ConversionTotal> totals = new HashMap<>();
+            for (ConversionHistory conversion : conversions) {
+                int day = dayOf(conversion.getTimestamp());
+                long amount = scaledAmount(conversion);
+                add(totals, PERIOD_DAY, day, conversion, amount);
+                add(totals, PERIOD_MONTH, TimeSeries.epochMonth(day), conversion, amount);
+                add(totals, PERIOD_ALL, 0, conversion, amount);
+            }
+            return totals.values();
+        }
+
+        private static void add(Map<String, ConversionTotal> totals, int period, int bucket,
+                                ConversionHistory conversion, long amount) {
+            String key = period + ":" + bucket + ":" + conversion.getFromCurrencyId()
+                    + ":" + conversion.getToCurrencyId();
+            ConversionTotal total = totals.get(key);
+            if (total == null) {
+                total = new ConversionTotal(period, bucket,
+                        conversion.getFromCurrencyId(), conversion.getToCurrencyId(), 0, 0);
+                totals.put(key, total);
+            }
+            total.conversionCount++;
+            total.amountTotal += amount;
+        }
+    }
+
+    /** One pair's total for a period, joined with its currency codes. */
+    public static class PairTotal {
+        public String fromCode;
+        public String toCode;
+        public int conversionCount;
+        public long amountTotal;
+    }
+
+    /** A history row joined with the codes its currency ids refer to. */
+    public static class ConversionRow {
+        @Embedded
+        public ConversionHistory conversion;
+        public String fromCode;
+        public String toCode;
+
+        // Filled in by the paging source on its worker thread so binding only copies text.
+        @Ignore
+        String conversionText;
+        @Ignore
+        String dateText;
+
+        void prepareText(FixedPointFormatter formatter, SimpleDateFormat dateFormat, Date date) {
+            formatter.reset();
+            formatter.appendMinorUnits(conversion.getAmountMinor(), conversion.getAmountScale());
+            formatter.append(' ').append(fromCode).append(" → ");
+            formatter.appendMinorUnits(conversion.getResultMinor(), conversion.getResultScale());
+            conversionText = formatter.append(' ').append(toCode).toString();
+
+            date.setTime(conversion.getTimestamp());
+            dateText = dateFormat.format(date);
+        }
+    }
+
     @Dao
     public interface ConversionHistoryDao {
         @Insert
-        void insert(ConversionHistory conversion);
+        void insertRow(ConversionHistory conversion);
+
+        @Insert
+        void insertRows(List<ConversionHistory> conversions);
+
+        @Transaction
+        default void insert(ConversionHistory conversion) {
+            insertAll(Collections.singletonList(conversion));
+        }
+
+        /** Inserts {@code conversions} and adds them to conversion_totals in one transaction. */
+        @Transaction
+        default void insertAll(List<ConversionHistory> conversions) {
+            insertRows(conversions);
+            for (ConversionTotal total : ConversionTotal.fold(conversions)) {
+                ensureTotal(total.getPeriod(), total.getBucket(),
+                        total.getFromCurrencyId(), total.getToCurrencyId());
+                addToTotal(total.getPeriod(), total.getBucket(), total.getFromCurrencyId(),
+                        total.getToCurrencyId(), total.getConversionCount(), total.getAmountTotal());
+            }
+        }
+
+        @Query("INSERT OR IGNORE INTO conversion_totals (period, bucket, fromCurrencyId, toCurrencyId, "
+                + "conversionCount, amountTotal) VALUES (:period, :bucket, :fromId, :toId, 0, 0)")
+        void ensureTotal(int period, int bucket, int fromId, int toId);
+
+        @Query("UPDATE conversion_totals SET conversionCount = conversionCount + :count, "
+                + "amountTotal = amountTotal + :amount WHERE period = :period AND bucket = :bucket "
+                + "AND fromCurrencyId = :fromId AND toCurrencyId = :toId")
+        void addToTotal(int period, int bucket, int fromId, int toId, int count, long amount);
+
+        @Insert(onConflict = OnConflictStrategy.IGNORE)
+        long insertCode(CurrencyCode code);
+
+        @Query("SELECT id FROM currency_codes WHERE code = :code")
+        Integer getCodeId(String code);
+
+        @Query("SELECT h.*, f.code AS fromCode, t.code AS toCode FROM conversion_history h "
+                + "JOIN currency_codes f ON f.id = h.fromCurrencyId "
+                + "JOIN currency_codes t ON t.id = h.toCurrencyId "
+                + "ORDER BY h.timestamp DESC, h.id DESC LIMIT :limit")
+        List<ConversionRow> getFirstPage(int limit);
+
+        // Keyset page: rows strictly older than (timestamp, id), walking the timestamp index.
+        @Query("SELECT h.*, f.code AS fromCode, t.code AS toCode FROM conversion_history h "
+                + "JOIN currency_codes f ON f.id = h.fromCurrencyId "
+                + "JOIN currency_codes t ON t.id = h.toCurrencyId "
+                + "WHERE h.timestamp <= :timestamp AND (h.timestamp < :timestamp OR h.id < :id) "
+                + "ORDER BY h.timestamp DESC, h.id DESC LIMIT :limit")
+        List<ConversionRow> getPageBefore(long timestamp, int id, int limit);
 
-        @Query("SELECT * FROM conversion_history ORDER BY timestamp DESC")
-        LiveData<List<ConversionHistory>> getAllConversions();
+        @Query("SELECT f.code AS fromCode, t.code AS toCode, s.conversionCount, s.amountTotal "
+                + "FROM conversion_totals s "
+                + "JOIN currency_codes f ON f.id = s.fromCurrencyId "
+                + "JOIN currency_codes t ON t.id = s.toCurrencyId "
+                + "WHERE s.period = :period AND s.bucket = :bucket "
+                + "ORDER BY s.conversionCount DESC, s.amountTotal DESC LIMIT :limit")
+        LiveData<List<PairTotal>> observeTopPairs(int period, int bucket, int limit);
+
+        // Streamed by HistoryTransfer, so it deliberately returns a Cursor rather than a list.
+        @Query("SELECT h.timestamp, f.code AS fromCode, t.code AS toCode, h.amountMinor, h.amountScale, "
+                + "h.resultMinor, h.resultScale FROM conversion_history h "
+                + "JOIN currency_codes f ON f.id = h.fromCurrencyId "
+                + "JOIN currency_codes t ON t.id = h.toCurrencyId "
+                + "ORDER BY h.timestamp, h.id")
+        Cursor exportCursor();
 
         @Query("DELETE FROM conversion_history")
-        void deleteAll();
+        void deleteRows();
+
+        @Query("DELETE FROM conversion_totals")
+        void clearTotals();
+
+        @Query(DatabaseSchema.REBUILD_DAY_TOTALS)
+        void rebuildDayTotals();
+
+        @Query(DatabaseSchema.REBUILD_MONTH_TOTALS)
+        void rebuildMonthTotals();
+
+        @Query(DatabaseSchema.REBUILD_ALL_TIME_TOTALS)
+        void rebuildAllTimeTotals();
+
+        /** Recomputes conversion_totals from whatever history is left. */
+        @Transaction
+        default void rebuildTotals() {
+            clearTotals();
+            rebuildDayTotals();
+            rebuildMonthTotals();
+            rebuildAllTimeTotals();
+        }
+
+        @Transaction
+        default void deleteAll() {
+            deleteRows();
+            rebuildTotals();
+        }
+    }
+
+    /** Position in the timestamp-ordered history; a page holds the rows strictly older than it. */
+    static final class PageKey {
+        final long timestamp;
+        final int id;
+
+        PageKey(long timestamp, int id) {
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+    }
+
+    static class HistoryPagingSource extends ListenableFuturePagingSource<PageKey, ConversionRow> {
+        private final AppDatabase database;
+        private final Executor executor;
+        private final InvalidationTracker.Observer observer =
+                new InvalidationTracker.Observer("conversion_history") {
+                    @Override
+                    public void onInvalidated(@NonNull Set<String> tables) {
+                        invalidate();
+                    }
+                };
+
+        HistoryPagingSource(AppDatabase database) {
+            this.database = database;
+            this.executor = database.getQueryExecutor();
+            database.getInvalidationTracker().addObserver(observer);
+            registerInvalidatedCallback(() -> {
+                database.getInvalidationTracker().removeObserver(observer);
+                return kotlin.Unit.INSTANCE;
+            });
+        }
+
+        @NonNull
+        @Override
+        public ListenableFuture<LoadResult<PageKey, ConversionRow>> loadFuture(
+                @NonNull LoadParams<PageKey> params) {
+            ListenableFutureTask<LoadResult<PageKey, ConversionRow>> task = ListenableFutureTask.create(() -> {
+                ConversionHistoryDao dao = database.conversionHistoryDao();
+                PageKey key = params.getKey();
+                int limit = params.getLoadSize();
+                long start = System.nanoTime();
+                List<ConversionRow> rows = key == null
+                        ? dao.getFirstPage(limit)
+                        : dao.getPageBefore(key.timestamp, key.id, limit);
+                Metrics.recordSince("db.history.page", start);
+
+                FixedPointFormatter formatter = new FixedPointFormatter();
+                SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault());
+                Date date = new Date();
+                for (ConversionRow row : rows) {
+                    row.prepareText(formatter, dateFormat, date);
+                }
+
+                PageKey nextKey = null;
+                if (rows.size() == limit) {
+                    ConversionHistory last = rows.get(rows.size() - 1).conversion;
+                    nextKey = new PageKey(last.getTimestamp(), last.getId());
+                }
+                return new LoadResult.Page<>(rows, null, nextKey);
+            });
+            try {
+                executor.execute(task);
+            } catch (RuntimeException e) {
+                return Futures.immediateFuture(new LoadResult.Error<>(e));
+            }
+            return task;
+        }
+
+        @Nullable
+        @Override
+        public PageKey getRefreshKey(@NonNull PagingState<PageKey, ConversionRow> state) {
+            // Newest rows come first, so a refresh always restarts from the top.
+            return null;
+        }
     }
 
-    private static class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.HistoryViewHolder> {
-        private List<ConversionHistory> conversions = new ArrayList<>();
-        private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault());
+    private static final DiffUtil.ItemCallback<ConversionRow> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ConversionRow>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull ConversionRow oldItem, @NonNull ConversionRow newItem) {
+                    return oldItem.conversion.getId() == newItem.conversion.getId();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull ConversionRow oldItem, @NonNull ConversionRow newItem) {
+                    ConversionHistory before = oldItem.conversion;
+                    ConversionHistory after = newItem.conversion;
+                    return before.getTimestamp() == after.getTimestamp()
+                            && before.getAmountMinor() == after.getAmountMinor()
+                            && before.getAmountScale() == after.getAmountScale()
+                            && before.getResultMinor() == after.getResultMinor()
+                            && before.getResultScale() == after.getResultScale()
+                            && before.getFromCurrencyId() == after.getFromCurrencyId()
+                            && before.getToCurrencyId() == after.getToCurrencyId();
+                }
+            };
+
+    private static class HistoryAdapter extends PagingDataAdapter<ConversionRow, HistoryAdapter.HistoryViewHolder> {
+        HistoryAdapter() {
+            super(DIFF_CALLBACK);
+        }
 
         @NonNull
         @Override
@@ -90,24 +455,12 @@ public class History extends AppCompatActivity {
 
         @Override
         public void onBindViewHolder(HistoryViewHolder holder, int position) {
-            ConversionHistory conversion = conversions.get(position);
-            holder.conversionText.setText(String.format(Locale.getDefault(),
-                    "%.2f %s → %.2f %s",
-                    conversion.getAmount(),
-                    conversion.getFromCurrency(),
-                    conversion.getResult(),
-                    conversion.getToCurrency()));
-            holder.dateText.setText(dateFormat.format(new Date(conversion.getTimestamp())));
-        }
-
-        @Override
-        public int getItemCount() {
-            return conversions.size();
-        }
-
-        public void setConversions(List<ConversionHistory> conversions) {
-            this.conversions = conversions;
-            notifyDataSetChanged();
+            ConversionRow row = getItem(position);
+            if (row == null) {
+                return;
+            }
+            holder.conversionText.setText(row.conversionText);
+            holder.dateText.setText(row.dateText);
         }
 
         static class HistoryViewHolder extends RecyclerView.ViewHolder {
@@ -125,6 +478,17 @@ public class History extends AppCompatActivity {
     private RecyclerView historyRecyclerView;
     private HistoryAdapter historyAdapter;
     private TextView emptyStateText;
+    private TextView summaryText;
+    private List<PairTotal> todayPairs, monthPairs, allTimePairs;
+    private HistoryTransfer transfer;
+    private final ActivityResultLauncher<String> exportCsv = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("text/csv"),
+            uri -> exportHistory(uri, HistoryTransfer.Format.CSV));
+    private final ActivityResultLauncher<String> exportJson = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/json"),
+            uri -> exportHistory(uri, HistoryTransfer.Format.JSON));
+    private final ActivityResultLauncher<String[]> importFile = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(), this::importHistory);
     private float x1, x2;
     private static final float MIN_DISTANCE = 150;
 
@@ -136,6 +500,7 @@ public class History extends AppCompatActivity {
 
         setupViews();
         viewHistory();
+        viewSummary();
     }
 
     private void setupViews() {
@@ -148,9 +513,85 @@ public class History extends AppCompatActivity {
         historyRecyclerView.setOnTouchListener((v, event) -> handleSwipe(event));
 
         emptyStateText = findViewById(R.id.emptyStateText);
+        summaryText = findViewById(R.id.summaryText);
 
         MaterialButton clearButton = findViewById(R.id.clearButton);
         clearButton.setOnClickListener(v -> showClearConfirmationDialog());
+        findViewById(R.id.exportButton).setOnClickListener(v -> showExportFormatDialog());
+        findViewById(R.id.importButton).setOnClickListener(v -> importFile.launch(
+                new String[] {"text/csv", "text/comma-separated-values", "application/json", "text/plain"}));
+    }
+
+    private void showExportFormatDialog() {
+        new MaterialAlertDialogBuilder(this)
+                .setTitle("Export History")
+                .setItems(new String[] {"CSV", "JSON"}, (dialog, which) -> {
+                    if (which == 0) {
+                        exportCsv.launch("conversion_history.csv");
+                    } else {
+                        exportJson.launch("conversion_history.json");
+                    }
+                })
+                .show();
+    }
+
+    private void exportHistory(Uri uri, HistoryTransfer.Format format) {
+        if (uri == null) {
+            return;
+        }
+        HistoryTransfer current = new HistoryTransfer(this);
+        AlertDialog progress = showTransferProgress("Exporting history...", current);
+        executor.execute(() -> {
+            String message;
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    getContentResolver().openOutputStream(uri), StandardCharsets.UTF_8))) {
+                message = "Exported " + current.export(writer, format) + " conversions";
+            } catch (CancellationException e) {
+                message = "Export cancelled";
+            } catch (IOException | RuntimeException e) {
+                message = "Export failed";
+            }
+            finishTransfer(progress, message);
+        });
+    }
+
+    private void importHistory(Uri uri) {
+        if (uri == null) {
+            return;
+        }
+        HistoryTransfer current = new HistoryTransfer(this);
+        AlertDialog progress = showTransferProgress("Importing history...", current);
+        executor.execute(() -> {
+            String message;
+            try (Reader reader = new InputStreamReader(
+                    getContentResolver().openInputStream(uri), StandardCharsets.UTF_8)) {
+                message = "Imported " + current.importFrom(reader) + " conversions";
+            } catch (CancellationException e) {
+                message = "Import cancelled";
+            } catch (IOException | RuntimeException e) {
+                message = "Import failed";
+            }
+            finishTransfer(progress, message);
+        });
+    }
+
+    private AlertDialog showTransferProgress(String message, HistoryTransfer current) {
+        transfer = current;
+        return new MaterialAlertDialogBuilder(this)
+                .setMessage(message)
+                .setCancelable(false)
+                .setNegativeButton("Cancel", (dialog, which) -> current.cancel())
+                .show();
+    }
+
+    private void finishTransfer(AlertDialog progress, String message) {
+        runOnUiThread(() -> {
+            transfer = null;
+            if (!isDestroyed()) {
+                progress.dismiss();
+                Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void showClearConfirmationDialog() {
@@ -164,17 +605,76 @@ public class History extends AppCompatActivity {
 
     private void clearHistory() {
         executor.execute(() -> {
+            long start = System.nanoTime();
             AppDatabase.getInstance(this).conversionHistoryDao().deleteAll();
+            Metrics.recordSince("db.history.deleteAll", start);
         });
     }
 
     private void viewHistory() {
-        AppDatabase.getInstance(this).conversionHistoryDao().getAllConversions()
-                .observe(this, conversions -> {
-                    historyAdapter.setConversions(conversions);
-                    emptyStateText.setVisibility(conversions.isEmpty() ? View.VISIBLE : View.GONE);
-                    historyRecyclerView.setVisibility(conversions.isEmpty() ? View.GONE : View.VISIBLE);
+        LiveData<PagingData<ConversionRow>> pages = PagingLiveData.cachedIn(
+                CurrencyRepository.getInstance(this).getHistoryPages(), getLifecycle());
+
+        pages.observe(this, data -> historyAdapter.submitData(getLifecycle(), data));
+        historyAdapter.addLoadStateListener(states -> {
+            if (states.getRefresh() instanceof LoadState.NotLoading) {
+                boolean empty = historyAdapter.getItemCount() == 0;
+                emptyStateText.setVisibility(empty ? View.VISIBLE : View.GONE);
+                historyRecyclerView.setVisibility(empty ? View.GONE : View.VISIBLE);
+            }
+            return kotlin.Unit.INSTANCE;
+        });
+    }
+
+    private void viewSummary() {
+        ConversionHistoryDao dao = AppDatabase.getInstance(this).conversionHistoryDao();
+        int today = ConversionTotal.dayOf(System.currentTimeMillis());
+        dao.observeTopPairs(ConversionTotal.PERIOD_DAY, today, SUMMARY_PAIRS).observe(this, pairs -> {
+            todayPairs = pairs;
+            showSummary();
+        });
+        dao.observeTopPairs(ConversionTotal.PERIOD_MONTH, TimeSeries.epochMonth(today), SUMMARY_PAIRS)
+                .observe(this, pairs -> {
+                    monthPairs = pairs;
+                    showSummary();
                 });
+        dao.observeTopPairs(ConversionTotal.PERIOD_ALL, 0, SUMMARY_PAIRS).observe(this, pairs -> {
+            allTimePairs = pairs;
+            showSummary();
+        });
+    }
+
+    private void showSummary() {
+        if (allTimePairs == null || allTimePairs.isEmpty()) {
+            summaryText.setVisibility(View.GONE);
+            return;
+        }
+        FixedPointFormatter formatter = new FixedPointFormatter();
+        StringBuilder text = formatter.reset();
+        appendSummaryLine(formatter, "Today", todayPairs);
+        appendSummaryLine(formatter, "\nThis month", monthPairs);
+        appendSummaryLine(formatter, "\nMost used", allTimePairs);
+        summaryText.setText(text.toString());
+        summaryText.setVisibility(View.VISIBLE);
+    }
+
+    private static void appendSummaryLine(FixedPointFormatter formatter, String label, List<PairTotal> pairs) {
+        formatter.append(label).append(": ");
+        if (pairs == null || pairs.isEmpty()) {
+            formatter.append('-');
+            return;
+        }
+        for (int i = 0; i < pairs.size(); i++) {
+            PairTotal pair = pairs.get(i);
+            if (i > 0) formatter.append(", ");
+            // Totals are kept in ten-thousandths; show them rounded to the from-currency's own digits.
+            int scale = Money.scaleOf(pair.fromCode);
+            formatter.append(pair.fromCode).append(' ');
+            formatter.appendMinorUnits(Money.rescale(pair.amountTotal, ConversionTotal.AMOUNT_SCALE, scale,
+                    Money.DEFAULT_ROUNDING), scale);
+            formatter.append(" → ").append(pair.toCode)
+                    .append(" (").append(pair.conversionCount).append("×)");
+        }
     }
 
     private boolean handleSwipe(MotionEvent event) {
@@ -209,6 +709,9 @@ public class History extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        if (transfer != null) {
+            transfer.cancel();
+        }
         executor.shutdown();
     }
 }
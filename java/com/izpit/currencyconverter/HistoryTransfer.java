@@ -0,0 +1,241 @@
+package com.izpit.currencyconverter;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.JsonWriter;
+import com.izpit.currencyconverter.History.ConversionHistory;
+import com.izpit.currencyconverter.History.ConversionHistoryDao;
+import com.izpit.currencyconverter.History.CurrencyCode;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Streams conversion history to and from CSV or JSON. Export walks a database
+ * cursor and writes each row as it is read; import parses the input as a stream
+ * and commits every {@link #CHUNK_SIZE} rows in its own transaction. Either can
+ * be stopped with {@link #cancel()}; rows already imported stay committed.
+ */
+final class HistoryTransfer {
+    static final int CHUNK_SIZE = 500;
+    private static final String CSV_HEADER = "timestamp,from,to,amount,result\n";
+
+    enum Format { CSV, JSON }
+
+    private final AppDatabase database;
+    private volatile boolean cancelled;
+
+    HistoryTransfer(Context context) {
+        database = AppDatabase.getInstance(context);
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    /** Writes every history row, oldest first, and returns how many were written. */
+    int export(Writer output, Format format) throws IOException {
+        int count = 0;
+        try (Cursor cursor = database.conversionHistoryDao().exportCursor()) {
+            int timestamp = cursor.getColumnIndexOrThrow("timestamp");
+            int fromCode = cursor.getColumnIndexOrThrow("fromCode");
+            int toCode = cursor.getColumnIndexOrThrow("toCode");
+            int amountMinor = cursor.getColumnIndexOrThrow("amountMinor");
+            int amountScale = cursor.getColumnIndexOrThrow("amountScale");
+            int resultMinor = cursor.getColumnIndexOrThrow("resultMinor");
+            int resultScale = cursor.getColumnIndexOrThrow("resultScale");
+
+            if (format == Format.JSON) {
+                JsonWriter writer = new JsonWriter(output);
+                writer.beginArray();
+                while (cursor.moveToNext()) {
+                    checkCancelled();
+                    writer.beginObject()
+                            .name("timestamp").value(cursor.getLong(timestamp))
+                            .name("from").value(cursor.getString(fromCode))
+                            .name("to").value(cursor.getString(toCode))
+                            .name("amount").value(BigDecimal.valueOf(
+                                    cursor.getLong(amountMinor), cursor.getInt(amountScale)))
+                            .name("result").value(BigDecimal.valueOf(
+                                    cursor.getLong(resultMinor), cursor.getInt(resultScale)))
+                            .endObject();
+                    count++;
+                }
+                writer.endArray();
+                writer.flush();
+            } else {
+                FixedPointFormatter formatter = new FixedPointFormatter('.');
+                output.write(CSV_HEADER);
+                while (cursor.moveToNext()) {
+                    checkCancelled();
+                    StringBuilder row = formatter.reset();
+                    row.append(cursor.getLong(timestamp)).append(',')
+                            .append(cursor.getString(fromCode)).append(',')
+                            .append(cursor.getString(toCode)).append(',');
+                    formatter.appendMinorUnits(cursor.getLong(amountMinor), cursor.getInt(amountScale));
+                    formatter.append(',');
+                    formatter.appendMinorUnits(cursor.getLong(resultMinor), cursor.getInt(resultScale));
+                    output.append(row.append('\n'));
+                    count++;
+                }
+                output.flush();
+            }
+        }
+        return count;
+    }
+
+    /** Reads CSV or JSON, detected from the first character, and returns how many rows were imported. */
+    int importFrom(Reader input) throws IOException {
+        BufferedReader reader = new BufferedReader(input);
+        reader.mark(1);
+        int first = reader.read();
+        while (first == ' ' || first == '\n' || first == '\r' || first == '\t' || first == '\uFEFF') {
+            reader.mark(1);
+            first = reader.read();
+        }
+        reader.reset();
+
+        Importer importer = new Importer(database.conversionHistoryDao());
+        if (first == '[') {
+            importJson(new JsonReader(reader), importer);
+        } else {
+            importCsv(reader, importer);
+        }
+        importer.commit();
+        return importer.imported;
+    }
+
+    private void importCsv(BufferedReader reader, Importer importer) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] fields = line.split(",", -1);
+            if (fields.length < 5 || fields[0].isEmpty() || !Character.isDigit(fields[0].charAt(0))) {
+                continue; // header or blank line
+            }
+            try {
+                importer.add(Long.parseLong(fields[0].trim()), fields[1].trim(), fields[2].trim(),
+                        new BigDecimal(fields[3].trim()), new BigDecimal(fields[4].trim()));
+            } catch (NumberFormatException | ArithmeticException e) {
+                importer.skipped++;
+            }
+        }
+    }
+
+    private void importJson(JsonReader reader, Importer importer) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            Long timestamp = null;
+            String from = null;
+            String to = null;
+            BigDecimal amount = null;
+            BigDecimal result = null;
+            boolean malformed = false;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.skipValue();
+                    continue;
+                }
+                // Values are read as strings first, so a bad one is consumed before it fails to parse.
+                try {
+                    switch (name) {
+                        case "timestamp": timestamp = Long.parseLong(reader.nextString()); break;
+                        case "from": from = reader.nextString(); break;
+                        case "to": to = reader.nextString(); break;
+                        case "amount": amount = new BigDecimal(reader.nextString()); break;
+                        case "result": result = new BigDecimal(reader.nextString()); break;
+                        default: reader.skipValue();
+                    }
+                } catch (NumberFormatException e) {
+                    malformed = true;
+                }
+            }
+            reader.endObject();
+            if (malformed || timestamp == null || from == null || to == null
+                    || amount == null || result == null) {
+                importer.skipped++;
+                continue;
+            }
+            try {
+                importer.add(timestamp, from, to, amount, result);
+            } catch (ArithmeticException e) {
+                importer.skipped++;
+            }
+        }
+        reader.endArray();
+    }
+
+    private void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("History transfer cancelled");
+        }
+    }
+
+    /** Buffers at most one chunk of parsed rows and commits it through the DAO. */
+    private final class Importer {
+        private final ConversionHistoryDao dao;
+        private final Map<String, Integer> codeIds = new HashMap<>();
+        private final List<ConversionHistory> chunk = new ArrayList<>(CHUNK_SIZE);
+        int imported;
+        int skipped;
+
+        Importer(ConversionHistoryDao dao) {
+            this.dao = dao;
+        }
+
+        void add(long timestamp, String from, String to, BigDecimal amount, BigDecimal result) {
+            amount = normalize(amount);
+            result = normalize(result);
+            chunk.add(new ConversionHistory(codeId(from), codeId(to),
+                    amount.unscaledValue().longValueExact(), amount.scale(),
+                    result.unscaledValue().longValueExact(), result.scale(), timestamp));
+            if (chunk.size() == CHUNK_SIZE) {
+                commit();
+            }
+        }
+
+        void commit() {
+            checkCancelled();
+            if (chunk.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            dao.insertAll(chunk);
+            Metrics.recordSince("db.history.importChunk", start);
+            imported += chunk.size();
+            chunk.clear();
+        }
+
+        // Keeps scales within what conversion_history and its totals can hold.
+        private BigDecimal normalize(BigDecimal value) {
+            if (value.scale() < 0) {
+                return value.setScale(0);
+            }
+            if (value.scale() > History.ConversionTotal.AMOUNT_SCALE) {
+                return value.setScale(History.ConversionTotal.AMOUNT_SCALE, RoundingMode.HALF_UP);
+            }
+            return value;
+        }
+
+        private int codeId(String code) {
+            Integer id = codeIds.get(code);
+            if (id == null) {
+                dao.insertCode(new CurrencyCode(code));
+                id = dao.getCodeId(code);
+                codeIds.put(code, id);
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.izpit.currencyconverter;
+
+import android.content.Context;
+import android.util.Log;
+import com.izpit.currencyconverter.History.ConversionHistory;
+import com.izpit.currencyconverter.History.ConversionHistoryDao;
+import com.izpit.currencyconverter.History.CurrencyCode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind queue for conversion history. Rows are collected on the caller's
+ * thread and written by one background thread as a single bulk insert, flushed
+ * when the batch fills up, when the oldest row has waited long enough, or when
+ * a screen stops. A batch whose transaction fails is put back at the head of
+ * the queue and retried with a growing delay; after {@link #MAX_FLUSH_ATTEMPTS}
+ * failures in a row it is dropped and counted.
+ */
+final class HistoryWriter {
+    static final int MAX_BATCH_SIZE = 50;
+    static final long MAX_DELAY_MS = 1000;
+    static final int MAX_FLUSH_ATTEMPTS = 3;
+    private static final String TAG = "HistoryWriter";
+
+    /** A conversion waiting to be written; currency codes are resolved to row ids at flush time. */
+    static final class PendingConversion {
+        final String fromCode;
+        final String toCode;
+        final long amountMinor;
+        final int amountScale;
+        final long resultMinor;
+        final int resultScale;
+        final long timestamp;
+
+        PendingConversion(String fromCode, String toCode, long amountMinor, int amountScale,
+                          long resultMinor, int resultScale, long timestamp) {
+            this.fromCode = fromCode;
+            this.toCode = toCode;
+            this.amountMinor = amountMinor;
+            this.amountScale = amountScale;
+            this.resultMinor = resultMinor;
+            this.resultScale = resultScale;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private static HistoryWriter instance;
+
+    private final AppDatabase database;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private final Object lock = new Object();
+    private List<PendingConversion> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    // Only touched from the writer thread, and only with ids whose transaction committed.
+    private final Map<String, Integer> codeIds = new HashMap<>();
+    // Only touched from the writer thread.
+    private int failedAttempts;
+
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong rowsDropped = new AtomicLong();
+
+    private HistoryWriter(Context context) {
+        database = AppDatabase.getInstance(context);
+    }
+
+    static synchronized HistoryWriter getInstance(Context context) {
+        if (instance == null) {
+            instance = new HistoryWriter(context);
+        }
+        return instance;
+    }
+
+    /** Queues a conversion given in minor units at each currency's scale, see {@link Money}. */
+    void enqueue(String fromCode, String toCode, long amountMinor, int amountScale,
+                 long resultMinor, int resultScale) {
+        PendingConversion conversion = new PendingConversion(fromCode, toCode,
+                amountMinor, amountScale, resultMinor, resultScale, System.currentTimeMillis());
+        synchronized (lock) {
+            pending.add(conversion);
+            if (pending.size() >= MAX_BATCH_SIZE) {
+                cancelScheduledFlush();
+                executor.execute(this::drain);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = executor.schedule(this::drain, MAX_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /** Writes whatever is pending without waiting for the size or time threshold. */
+    void flush() {
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            cancelScheduledFlush();
+        }
+        executor.execute(this::drain);
+    }
+
+    int getQueueDepth() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    long getFlushCount() { return flushCount.get(); }
+    long getRowsWritten() { return rowsWritten.get(); }
+    long getLastFlushLatencyMillis() { return TimeUnit.NANOSECONDS.toMillis(lastFlushNanos.get()); }
+    long getMaxFlushLatencyMillis() { return TimeUnit.NANOSECONDS.toMillis(maxFlushNanos.get()); }
+    long getFailedFlushCount() { return failedFlushes.get(); }
+    long getRowsDropped() { return rowsDropped.get(); }
+
+    private void drain() {
+        List<PendingConversion> batch;
+        synchronized (lock) {
+            scheduledFlush = null;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+
+        long start = System.nanoTime();
+        // Ids of code rows inserted by this batch; they only become visible to later batches once it commits.
+        Map<String, Integer> staged = new HashMap<>();
+        try {
+            database.runInTransaction(() -> {
+                ConversionHistoryDao dao = database.conversionHistoryDao();
+                List<ConversionHistory> rows = new ArrayList<>(batch.size());
+                for (PendingConversion conversion : batch) {
+                    rows.add(new ConversionHistory(
+                            resolveCodeId(dao, conversion.fromCode, staged),
+                            resolveCodeId(dao, conversion.toCode, staged),
+                            conversion.amountMinor, conversion.amountScale,
+                            conversion.resultMinor, conversion.resultScale,
+                            conversion.timestamp));
+                }
+                dao.insertAll(rows);
+            });
+        } catch (RuntimeException e) {
+            handleFailedBatch(batch, e);
+            return;
+        }
+        codeIds.putAll(staged);
+        failedAttempts = 0;
+        long elapsed = System.nanoTime() - start;
+        Metrics.record("db.history.flush", elapsed);
+
+        flushCount.incrementAndGet();
+        rowsWritten.addAndGet(batch.size());
+        lastFlushNanos.set(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+    }
+
+    private int resolveCodeId(ConversionHistoryDao dao, String code, Map<String, Integer> staged) {
+        Integer id = codeIds.get(code);
+        if (id == null) {
+            id = staged.get(code);
+        }
+        if (id == null) {
+            dao.insertCode(new CurrencyCode(code));
+            id = dao.getCodeId(code);
+            staged.put(code, id);
+        }
+        return id;
+    }
+
+    /** Puts {@code batch} back in front of newer rows and retries later, or drops it after too many failures. */
+    private void handleFailedBatch(List<PendingConversion> batch, RuntimeException e) {
+        failedFlushes.incrementAndGet();
+        failedAttempts++;
+        if (failedAttempts >= MAX_FLUSH_ATTEMPTS) {
+            Log.e(TAG, "Dropping " + batch.size() + " history rows after " + failedAttempts + " failed flushes", e);
+            rowsDropped.addAndGet(batch.size());
+            failedAttempts = 0;
+            return;
+        }
+        Log.w(TAG, "History flush failed, retrying " + batch.size() + " rows", e);
+        synchronized (lock) {
+            batch.addAll(pending);
+            pending = batch;
+            cancelScheduledFlush();
+            scheduledFlush = executor.schedule(this::drain,
+                    MAX_DELAY_MS << failedAttempts, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+}
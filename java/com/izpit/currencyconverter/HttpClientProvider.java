@@ -0,0 +1,111 @@
+package com.izpit.currencyconverter;
+
+import android.content.Context;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Cache;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+
+/**
+ * Process-wide OkHttp client so the connection pool, dispatcher threads and TLS
+ * sessions survive activity changes. Responses are kept in an on-disk cache and
+ * revalidated with ETag / If-Modified-Since, so unchanged data comes back as a
+ * 304 or a straight cache hit. {@link FetchPolicy} sits outside everything else
+ * so its retries and circuit breaker see each call once, cache included.
+ */
+final class HttpClientProvider {
+    private static final long CACHE_SIZE_BYTES = 5L * 1024 * 1024;
+    private static final String CATALOG_CACHE_CONTROL = "public, max-age=86400";
+    private static final String RATES_CACHE_CONTROL = "no-cache";
+
+    private static OkHttpClient client;
+    private static Cache cache;
+    private static final AtomicLong bytesSaved = new AtomicLong();
+    private static final FetchPolicy fetchPolicy = new FetchPolicy();
+
+    private HttpClientProvider() {}
+
+    static synchronized OkHttpClient get(Context context) {
+        if (client == null) {
+            cache = new Cache(new File(context.getApplicationContext().getCacheDir(), "http"),
+                    CACHE_SIZE_BYTES);
+            client = newClient(cache, fetchPolicy);
+        }
+        return client;
+    }
+
+    /** The client {@link #get} builds, around any cache directory; tests use it with a mock server. */
+    static OkHttpClient newClient(Cache cache, FetchPolicy policy) {
+        return new OkHttpClient.Builder()
+                .cache(cache)
+                .connectTimeout(5, TimeUnit.SECONDS)
+                .readTimeout(10, TimeUnit.SECONDS)
+                // Bounds the whole call, retries and backoff included.
+                .callTimeout(30, TimeUnit.SECONDS)
+                .eventListenerFactory(TimingEventListener.FACTORY)
+                .addInterceptor(policy)
+                .addInterceptor(HttpClientProvider::countSavedBytes)
+                .addNetworkInterceptor(HttpClientProvider::applyCachePolicy)
+                .build();
+    }
+
+    static FetchPolicy getFetchPolicy() {
+        return fetchPolicy;
+    }
+
+    /** Fraction of requests answered from the cache, either directly or after a 304. */
+    static synchronized double getCacheHitRatio() {
+        if (cache == null || cache.requestCount() == 0) {
+            return 0;
+        }
+        return (double) cache.hitCount() / cache.requestCount();
+    }
+
+    static synchronized int getRequestCount() {
+        return cache == null ? 0 : cache.requestCount();
+    }
+
+    static synchronized int getNetworkCount() {
+        return cache == null ? 0 : cache.networkCount();
+    }
+
+    /** Body bytes that were served from the cache instead of being downloaded again. */
+    static long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    private static Response countSavedBytes(Interceptor.Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        Response network = response.networkResponse();
+        if (response.cacheResponse() != null && (network == null || network.code() == 304)) {
+            long length = response.body() != null ? response.body().contentLength() : -1;
+            if (length > 0) {
+                bytesSaved.addAndGet(length);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Frankfurter does not always send caching headers, so give the catalog a day
+     * of freshness and make rate responses storable but always revalidated.
+     */
+    private static Response applyCachePolicy(Interceptor.Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        String path = chain.request().url().encodedPath();
+        if (!response.isSuccessful() || response.header("Cache-Control") != null) {
+            return response;
+        }
+        if (path.endsWith("/currencies")) {
+            return response.newBuilder().header("Cache-Control", CATALOG_CACHE_CONTROL).build();
+        }
+        if (path.endsWith("/latest")) {
+            return response.newBuilder().header("Cache-Control", RATES_CACHE_CONTROL).build();
+        }
+        return response;
+    }
+}
@@ -0,0 +1,65 @@
+package com.izpit.currencyconverter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets: bucket
+ * {@code i} counts samples below {@code 2^i} microseconds. Recording is a few atomic
+ * increments, so it is safe on OkHttp and Room threads; percentiles are
+ * reported as the upper bound of the bucket they fall in.
+ */
+final class LatencyHistogram {
+    static final int BUCKETS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        long micros = nanos / 1000;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    long getCount() { return count.get(); }
+    long getMaxMicros() { return maxNanos.get() / 1000; }
+
+    long getMeanMicros() {
+        long samples = count.get();
+        return samples == 0 ? 0 : totalNanos.get() / samples / 1000;
+    }
+
+    /** Upper bound, in microseconds, of the bucket holding the {@code percentile}th sample. */
+    long getPercentileMicros(double percentile) {
+        long samples = count.get();
+        if (samples == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(samples * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(1L << i, getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+}
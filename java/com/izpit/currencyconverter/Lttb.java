@@ -0,0 +1,65 @@
+package com.izpit.currencyconverter;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling. Keeps the first and last points
+ * and, for every bucket in between, the point that forms the largest triangle
+ * with the previously kept point and the average of the next bucket. This keeps
+ * the visual peaks and troughs of the series at roughly one point per pixel.
+ */
+final class Lttb {
+
+    private Lttb() {}
+
+    static TimeSeries downsample(TimeSeries series, int threshold) {
+        int size = series.size();
+        if (threshold >= size || threshold < 3) {
+            return series;
+        }
+
+        int[] days = new int[threshold];
+        double[] rates = new double[threshold];
+        double bucketSize = (double) (size - 2) / (threshold - 2);
+
+        int kept = 0;
+        days[0] = series.dayAt(0);
+        rates[0] = series.rateAt(0);
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += series.dayAt(i);
+                avgY += series.rateAt(i);
+            }
+            int nextCount = nextEnd - nextStart;
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            double keptX = series.dayAt(kept);
+            double keptY = series.rateAt(kept);
+
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((keptX - avgX) * (series.rateAt(i) - keptY)
+                        - (keptX - series.dayAt(i)) * (avgY - keptY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+
+            days[bucket + 1] = series.dayAt(chosen);
+            rates[bucket + 1] = series.rateAt(chosen);
+            kept = chosen;
+        }
+
+        days[threshold - 1] = series.dayAt(size - 1);
+        rates[threshold - 1] = series.rateAt(size - 1);
+        return new TimeSeries(days, rates, threshold);
+    }
+}
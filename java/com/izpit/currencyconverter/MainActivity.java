@@ -1,13 +1,12 @@
 package com.izpit.currencyconverter;
 
 import android.app.ActivityOptions;
-import android.app.NotificationChannel;
-import android.app.NotificationManager;
-import android.app.PendingIntent;
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.os.Build;
 import android.os.Bundle;
+import android.text.format.DateFormat;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.ContextMenu;
 import android.view.Menu;
 import android.view.MenuItem;
@@ -20,24 +19,17 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
-import androidx.core.app.NotificationCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
-
-import okhttp3.Call;
-import okhttp3.Callback;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
-
-import org.json.JSONObject;
+import com.google.android.material.textfield.TextInputEditText;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Iterator;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -46,24 +38,22 @@ public class MainActivity extends AppCompatActivity {
     private static final String PREFERENCES_NAME = "AppPreferences";
     private static final String BASE_CURRENCY_KEY = "BaseCurrency";
     private static final String THEME_KEY = "AppTheme";
-    private static final String CHANNEL_ID = "CURRENCY_UPDATES";
 
-    private static final List<String> ALLOWED_BASE_CURRENCIES = Arrays.asList(
-            "BGN - Bulgarian Lev",
-            "USD - US Dollar",
-            "EUR - Euro"
-    );
+    private static final String[] ALLOWED_BASE_CURRENCIES = {"BGN", "USD", "EUR"};
 
     private TextView baseCurrencyText;
     private RecyclerView ratesRecyclerView;
     private RatesAdapter ratesAdapter;
     private SwipeRefreshLayout swipeRefreshLayout;
-    private final OkHttpClient client = new OkHttpClient();
+    private CurrencyRepository repository;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
     private SharedPreferences preferences;
-    private NotificationManager notificationManager;
     private float x1, x2;
     private static final float MIN_DISTANCE = 150;
-    private List<String> currencies = new ArrayList<>();
+    private final CurrencyRegistry registry = CurrencyRegistry.getInstance();
+    private final CurrencyIndex.Search rateSearch = new CurrencyIndex.Search();
+    private CurrencyRate[] ratesById = new CurrencyRate[0];
+    private String rateQuery = "";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -71,11 +61,13 @@ public class MainActivity extends AppCompatActivity {
         setContentView(R.layout.activity_main);
 
         preferences = getSharedPreferences(PREFERENCES_NAME, MODE_PRIVATE);
+        repository = CurrencyRepository.getInstance(this);
         applySavedTheme();
 
-        createNotificationChannel();
+        RateSyncWorker.createNotificationChannel(this);
+        RateSyncWorker.schedule(this);
         setupViews();
-        fetchCurrencies();
+        observeRepository();
         registerForContextMenu(findViewById(R.id.appBar));
     }
 
@@ -88,97 +80,63 @@ public class MainActivity extends AppCompatActivity {
         ratesAdapter = new RatesAdapter();
         ratesRecyclerView.setAdapter(ratesAdapter);
 
-        swipeRefreshLayout.setOnRefreshListener(() -> {
-            fetchRates();
-            showRefreshNotification();
-        });
+        swipeRefreshLayout.setOnRefreshListener(() -> fetchRates(-1, true));
 
-        findViewById(R.id.popupMenuButton).setOnClickListener(this::showPopupMenu);
-        updateBaseCurrencyText();
-
-        ratesRecyclerView.setOnTouchListener((v, event) -> handleSwipe(event));
-
-        notificationManager = getSystemService(NotificationManager.class);
-    }
-
-    private void createNotificationChannel() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            NotificationChannel channel = new NotificationChannel(
-                    CHANNEL_ID,
-                    "Currency Updates",
-                    NotificationManager.IMPORTANCE_DEFAULT
-            );
-            channel.setDescription("Notifications for currency rate updates");
-            notificationManager = getSystemService(NotificationManager.class);
-            notificationManager.createNotificationChannel(channel);
-        }
-    }
-
-    private void fetchCurrencies() {
-        Request request = new Request.Builder()
-                .url("https://api.frankfurter.app/currencies")
-                .build();
+        TextInputEditText searchEditText = findViewById(R.id.searchEditText);
+        searchEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
 
-        client.newCall(request).enqueue(new Callback() {
             @Override
-            public void onFailure(Call call, IOException e) {
-                showToast("Failed to fetch currencies");
-            }
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
 
             @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                if (!response.isSuccessful()) {
-                    showToast("Error fetching currencies");
-                    return;
-                }
+            public void afterTextChanged(Editable s) {
+                applyRateFilter(s.toString());
+            }
+        });
 
-                try {
-                    JSONObject json = new JSONObject(response.body().string());
-                    currencies.clear();
-                    Iterator<String> keys = json.keys();
+        findViewById(R.id.popupMenuButton).setOnClickListener(this::showPopupMenu);
+        baseCurrencyText.setOnLongClickListener(v -> {
+            startActivity(new Intent(this, DebugActivity.class));
+            return true;
+        });
+        updateBaseCurrencyText();
 
-                    while (keys.hasNext()) {
-                        String code = keys.next();
-                        currencies.add(code + " - " + json.getString(code));
-                    }
+        ratesRecyclerView.setOnTouchListener((v, event) -> handleSwipe(event));
+    }
 
-                    runOnUiThread(() -> {
-                        updateBaseCurrencyText();
-                        fetchRates();
-                    });
-                } catch (Exception e) {
-                    showToast("Error parsing currencies");
-                }
+    private void observeRepository() {
+        repository.getCatalog().observe(this, catalog -> {
+            updateBaseCurrencyText();
+            // Rows are built from the catalog, so a snapshot shown before it loaded needs redrawing.
+            RateSnapshot latest = repository.getLatestSnapshot();
+            if (latest != null) {
+                showSnapshot(latest);
             }
         });
+        repository.getSnapshot().observe(this, this::showSnapshot);
     }
 
-    private void showRefreshNotification() {
-        Intent intent = new Intent(this, MainActivity.class);
-        PendingIntent pendingIntent = PendingIntent.getActivity(
-                this, 0, intent, PendingIntent.FLAG_IMMUTABLE
-        );
-
-        NotificationCompat.Builder builder = new NotificationCompat.Builder(this, CHANNEL_ID)
-                .setSmallIcon(R.drawable.baseline_sync_24)
-                .setContentTitle("Currency Rates Updated")
-                .setContentText("Latest exchange rates have been fetched")
-                .setPriority(NotificationCompat.PRIORITY_DEFAULT)
-                .setAutoCancel(true)
-                .setContentIntent(pendingIntent);
-
-        notificationManager.notify(1, builder.build());
+    /** Shows {@code source} against the selected base, fetching only if the base is not quoted in it. */
+    private void showSnapshot(RateSnapshot source) {
+        int baseId = registry.intern(preferences.getString(BASE_CURRENCY_KEY, "USD"));
+        if (source.hasRate(baseId)) {
+            showRates(source, baseId);
+        } else {
+            fetchRates(baseId, false);
+        }
     }
 
-    private void fetchRates() {
-        String baseCurrency = extractCurrencyCode(preferences.getString(BASE_CURRENCY_KEY, "USD"));
-        String url = "https://api.frankfurter.app/latest?base=" + baseCurrency;
-
-        Request request = new Request.Builder().url(url).build();
+    private void fetchRates(int baseId, boolean force) {
+        repository.refreshRates(baseId, force, new RateFetcher.Listener<RateSnapshot>() {
+            @Override
+            public void onResult(RateSnapshot snapshot) {
+                runOnUiThread(() -> swipeRefreshLayout.setRefreshing(false));
+            }
 
-        client.newCall(request).enqueue(new Callback() {
             @Override
-            public void onFailure(Call call, IOException e) {
+            public void onError(IOException e) {
                 runOnUiThread(() -> {
                     swipeRefreshLayout.setRefreshing(false);
                     Toast.makeText(MainActivity.this, "Failed to fetch rates", Toast.LENGTH_SHORT).show();
@@ -186,76 +144,109 @@ public class MainActivity extends AppCompatActivity {
             }
 
             @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                swipeRefreshLayout.setRefreshing(false);
-                if (response.isSuccessful()) {
-                    try {
-                        JSONObject json = new JSONObject(response.body().string());
-                        JSONObject rates = json.getJSONObject("rates");
-                        List<CurrencyRate> ratesList = new ArrayList<>();
-
-                        for (String currencyFullName : currencies) {
-                            String currencyCode = extractCurrencyCode(currencyFullName);
-                            if (rates.has(currencyCode)) {
-                                double rate = rates.getDouble(currencyCode);
-                                ratesList.add(new CurrencyRate(currencyFullName, rate));
-                                if (ratesList.size() >= 10) break;
-                            }
-                        }
-
-                        runOnUiThread(() -> ratesAdapter.setRates(ratesList));
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
+            public void onStale(RateSnapshot stale, IOException e) {
+                int shownId = registry.intern(preferences.getString(BASE_CURRENCY_KEY, "USD"));
+                if (stale.hasRate(shownId)) {
+                    showRates(stale, shownId);
                 }
+                String fetchedAt = DateFormat.getTimeFormat(MainActivity.this)
+                        .format(new Date(stale.getFetchedAt()));
+                runOnUiThread(() -> {
+                    swipeRefreshLayout.setRefreshing(false);
+                    Toast.makeText(MainActivity.this, "Offline, showing rates from " + fetchedAt,
+                            Toast.LENGTH_SHORT).show();
+                });
             }
         });
     }
 
-    private void showPopupMenu(View view) {
-        PopupMenu popupMenu = new PopupMenu(this, view);
-        for (int i = 0; i < ALLOWED_BASE_CURRENCIES.size(); i++) {
-            popupMenu.getMenu().add(0, i, Menu.NONE, ALLOWED_BASE_CURRENCIES.get(i));
+    /** Rebases {@code source} and builds the rows with their display text on the executor. */
+    private void showRates(RateSnapshot source, int baseId) {
+        if (executor.isShutdown()) {
+            return;
         }
+        executor.execute(() -> {
+            RateSnapshot snapshot = source.rebase(baseId);
+            CurrencyRate[] rates = new CurrencyRate[registry.size()];
+            FixedPointFormatter formatter = new FixedPointFormatter();
+
+            for (CurrencyRegistry.Currency currency : registry.getCatalog()) {
+                if (currency.id != baseId && snapshot.hasRate(currency.id)) {
+                    rates[currency.id] = new CurrencyRate(currency, snapshot.rateOf(currency.id), formatter);
+                }
+            }
 
-        popupMenu.setOnMenuItemClickListener(item -> {
-            String selectedCurrency = extractCurrencyCode(ALLOWED_BASE_CURRENCIES.get(item.getItemId()));
-            preferences.edit().putString(BASE_CURRENCY_KEY, selectedCurrency).apply();
-            updateBaseCurrencyText();
-            fetchRates();
-            return true;
+            // A slower response for a base the user has since switched away from must not win.
+            if (baseId != registry.intern(preferences.getString(BASE_CURRENCY_KEY, "USD"))) {
+                return;
+            }
+            ratesById = rates;
+            postFilteredRates();
         });
-        popupMenu.show();
     }
 
-    private String extractCurrencyCode(String fullCurrencyString) {
-        return fullCurrencyString.split(" - ")[0];
+    private void applyRateFilter(String query) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        executor.execute(() -> {
+            rateQuery = query;
+            postFilteredRates();
+        });
     }
 
-    private void updateBaseCurrencyText() {
-        String baseCurrency = preferences.getString(BASE_CURRENCY_KEY, "USD");
-        String fullName = "";
-
-        for (String currency : ALLOWED_BASE_CURRENCIES) {
-            if (currency.startsWith(baseCurrency + " - ")) {
-                fullName = currency;
-                break;
+    // Runs on the executor, which owns ratesById, rateQuery and rateSearch; only the finished list is posted.
+    private void postFilteredRates() {
+        int[] ids = rateSearch.update(CurrencyIndex.forRegistry(registry), rateQuery);
+        List<CurrencyRate> ratesList = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            if (id < ratesById.length && ratesById[id] != null) {
+                ratesList.add(ratesById[id]);
             }
         }
+        runOnUiThread(() -> ratesAdapter.setRates(ratesList));
+    }
 
-        if (fullName.isEmpty()) {
-            for (String currency : currencies) {
-                if (currency.startsWith(baseCurrency + " - ")) {
-                    fullName = currency;
-                    break;
-                }
+    private void showPopupMenu(View view) {
+        PopupMenu popupMenu = new PopupMenu(this, view);
+        CurrencyRegistry.Currency[] catalog = registry.getCatalog();
+        if (catalog.length > 0) {
+            for (CurrencyRegistry.Currency currency : catalog) {
+                popupMenu.getMenu().add(0, currency.id, Menu.NONE, currency.getDisplayName());
+            }
+        } else {
+            for (String code : ALLOWED_BASE_CURRENCIES) {
+                int id = registry.intern(code);
+                popupMenu.getMenu().add(0, id, Menu.NONE, registry.get(id).getDisplayName());
             }
         }
 
-        baseCurrencyText.setText("Base Currency: " + (fullName.isEmpty() ? baseCurrency : fullName));
+        popupMenu.setOnMenuItemClickListener(item -> {
+            selectBaseCurrency(item.getItemId());
+            return true;
+        });
+        popupMenu.show();
     }
 
+    private void selectBaseCurrency(int baseId) {
+        preferences.edit().putString(BASE_CURRENCY_KEY, registry.codeOf(baseId)).apply();
+        updateBaseCurrencyText();
+
+        // Every cross rate is already in the shared snapshot, so switching base is a local rebase.
+        RateSnapshot latest = repository.getLatestSnapshot();
+        if (latest != null && latest.hasRate(baseId)) {
+            showRates(latest, baseId);
+            if (repository.isFresh(latest)) {
+                return;
+            }
+        }
+        fetchRates(baseId, false);
+    }
 
+    private void updateBaseCurrencyText() {
+        int baseId = registry.intern(preferences.getString(BASE_CURRENCY_KEY, "USD"));
+        baseCurrencyText.setText("Base Currency: " + registry.get(baseId).getDisplayName());
+    }
 
     @Override
     public void onCreateContextMenu(ContextMenu menu, View v, ContextMenu.ContextMenuInfo menuInfo) {
@@ -323,7 +314,9 @@ public class MainActivity extends AppCompatActivity {
         finish();
     }
 
-    private void showToast(String message) {
-        runOnUiThread(() -> Toast.makeText(this, message, Toast.LENGTH_SHORT).show());
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        executor.shutdown();
     }
 }
\ No newline at end of file
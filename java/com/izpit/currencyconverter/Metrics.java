@@ -0,0 +1,105 @@
+package com.izpit.currencyconverter;
+
+import android.content.Context;
+import android.util.JsonWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Process-wide named latency histograms. Network phases are recorded by
+ * {@link TimingEventListener} as {@code http.<endpoint>.<phase>}, database work
+ * by its call sites as {@code db.<operation>}.
+ */
+final class Metrics {
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private Metrics() {}
+
+    static LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    static void record(String name, long nanos) {
+        histogram(name).record(nanos);
+    }
+
+    /** Records the time since {@code startNanos}, a value taken from {@link System#nanoTime()}. */
+    static void recordSince(String name, long startNanos) {
+        histogram(name).record(System.nanoTime() - startNanos);
+    }
+
+    /** All histograms, sorted by name. */
+    static Map<String, LatencyHistogram> getHistograms() {
+        return new ConcurrentSkipListMap<>(histograms);
+    }
+
+    static void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    /** One line per histogram: count, mean, p50, p95, p99 and max in milliseconds. */
+    static String format() {
+        FixedPointFormatter formatter = new FixedPointFormatter('.');
+        StringBuilder text = formatter.reset();
+        for (Map.Entry<String, LatencyHistogram> entry : getHistograms().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            text.append(entry.getKey()).append("  n=").append(histogram.getCount());
+            appendMillis(formatter, "  mean=", histogram.getMeanMicros());
+            appendMillis(formatter, "  p50=", histogram.getPercentileMicros(50));
+            appendMillis(formatter, "  p95=", histogram.getPercentileMicros(95));
+            appendMillis(formatter, "  p99=", histogram.getPercentileMicros(99));
+            appendMillis(formatter, "  max=", histogram.getMaxMicros());
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    private static void appendMillis(FixedPointFormatter formatter, String label, long micros) {
+        formatter.append(label);
+        formatter.appendMinorUnits(micros / 100, 1).append("ms");
+    }
+
+    static void writeJson(Writer output) throws IOException {
+        JsonWriter writer = new JsonWriter(output);
+        writer.setIndent("  ");
+        writer.beginObject();
+        writer.name("capturedAt").value(System.currentTimeMillis());
+        writer.name("histograms").beginObject();
+        for (Map.Entry<String, LatencyHistogram> entry : getHistograms().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            writer.name(entry.getKey()).beginObject()
+                    .name("count").value(histogram.getCount())
+                    .name("meanMicros").value(histogram.getMeanMicros())
+                    .name("p50Micros").value(histogram.getPercentileMicros(50))
+                    .name("p95Micros").value(histogram.getPercentileMicros(95))
+                    .name("p99Micros").value(histogram.getPercentileMicros(99))
+                    .name("maxMicros").value(histogram.getMaxMicros())
+                    .endObject();
+        }
+        writer.endObject();
+        writer.endObject();
+        writer.flush();
+    }
+
+    /** Writes a JSON dump to the app's files directory and returns it. */
+    static File dumpToFile(Context context) throws IOException {
+        File file = new File(context.getFilesDir(), "metrics-" + System.currentTimeMillis() + ".json");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writeJson(writer);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,193 @@
+package com.izpit.currencyconverter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on {@code long} minor units at the ISO 4217 scale
+ * of each currency. Everything here works on primitives so typing and
+ * converting allocate nothing, apart from the rare conversion that has to be
+ * redone in BigDecimal (see {@link #convert}). Results that would not fit a long
+ * throw {@link ArithmeticException} instead of wrapping.
+ */
+final class Money {
+    static final RoundingMode DEFAULT_ROUNDING = RoundingMode.HALF_UP;
+    static final int DEFAULT_SCALE = 2;
+    static final int MAX_SCALE = 4;
+    // 2^49: above it a double resolves no finer than 1/8 of a minor unit, too coarse to round from.
+    private static final double MAX_FAST_DOUBLE = 562949953421312.0;
+    // 2^63: no product at or beyond this fits a long.
+    private static final double LONG_RANGE = 9223372036854775808.0;
+    // Error of the double product, in ulps, that still leaves the rounding decision certain.
+    private static final int BOUNDARY_ULPS = 4;
+
+    private Money() {}
+
+    /** Minor-unit digits for {@code code}: 0 for JPY, 3 for KWD, 2 when ISO 4217 does not say. */
+    static int scaleOf(String code) {
+        try {
+            int digits = java.util.Currency.getInstance(code).getDefaultFractionDigits();
+            return digits < 0 ? DEFAULT_SCALE : Math.min(digits, MAX_SCALE);
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_SCALE;
+        }
+    }
+
+    /**
+     * Parses a decimal such as {@code "-1234.565"} into minor units at {@code scale},
+     * rounding surplus fraction digits with {@code mode}. Either '.' or ',' is
+     * accepted as the decimal separator.
+     */
+    static long parse(CharSequence text, int scale, RoundingMode mode) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+
+        long value = 0;
+        int fractionDigits = -1;
+        int firstDropped = 0;
+        boolean sticky = false;
+        boolean anyDigit = false;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if ((c == '.' || c == ',') && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Not a decimal amount: " + text);
+            }
+            anyDigit = true;
+            int digit = c - '0';
+            if (fractionDigits >= scale) {
+                // Past the currency's scale: remember just enough to round correctly.
+                if (fractionDigits == scale) firstDropped = digit; else sticky |= digit != 0;
+                fractionDigits++;
+                continue;
+            }
+            value = Math.addExact(Math.multiplyExact(value, 10), digit);
+            if (fractionDigits >= 0) fractionDigits++;
+        }
+        if (!anyDigit) {
+            throw new NumberFormatException("Not a decimal amount: " + text);
+        }
+
+        int kept = Math.max(fractionDigits, 0);
+        if (kept < scale) {
+            value = Math.multiplyExact(value, FixedPointFormatter.powerOfTen(scale - kept));
+        }
+        if (fractionDigits > scale && roundsAway(value, firstDropped, sticky, negative, mode)) {
+            value = Math.addExact(value, 1);
+        }
+        return negative ? -value : value;
+    }
+
+    /** Moves {@code minor} from {@code fromScale} to {@code toScale}, rounding with {@code mode}. */
+    static long rescale(long minor, int fromScale, int toScale, RoundingMode mode) {
+        if (toScale >= fromScale) {
+            return Math.multiplyExact(minor, FixedPointFormatter.powerOfTen(toScale - fromScale));
+        }
+        long divisor = FixedPointFormatter.powerOfTen(fromScale - toScale);
+        long quotient = minor / divisor;
+        long remainder = Math.abs(minor % divisor);
+        if (remainder == 0) {
+            return quotient;
+        }
+        long half = divisor / 2;
+        int firstDropped = remainder > half ? 6 : remainder == half ? 5 : 4;
+        boolean negative = minor < 0;
+        if (roundsAway(Math.abs(quotient), firstDropped, false, negative, mode)) {
+            return negative ? quotient - 1 : quotient + 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Converts {@code minor} at {@code fromScale} by {@code rate} into minor units at
+     * {@code toScale}. The product is rounded once, with {@code mode}, as if the rate
+     * were the decimal it was quoted as. That is done in double arithmetic when the
+     * product is small and clear of every whole and half minor unit by more than
+     * its possible error; otherwise it is redone exactly in BigDecimal.
+     */
+    static long convert(long minor, int fromScale, double rate, int toScale, RoundingMode mode) {
+        double approximate = minor * rate;
+        if (toScale > fromScale) {
+            approximate *= FixedPointFormatter.powerOfTen(toScale - fromScale);
+        } else if (toScale < fromScale) {
+            approximate /= FixedPointFormatter.powerOfTen(fromScale - toScale);
+        }
+        if (!(Math.abs(approximate) < LONG_RANGE)) {
+            throw new ArithmeticException("Converted amount out of range");
+        }
+        if (Math.abs(approximate) < MAX_FAST_DOUBLE && !nearRoundingBoundary(approximate)) {
+            return round(approximate, mode);
+        }
+        return BigDecimal.valueOf(minor, fromScale).multiply(BigDecimal.valueOf(rate))
+                .setScale(toScale, mode).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Rates are decimal quotes held as doubles, so a product that is exactly a whole
+     * or half minor unit in decimal can land a few ulps beside it, on either side.
+     * Those are the only values whose rounding the double cannot decide.
+     */
+    private static boolean nearRoundingBoundary(double value) {
+        double halves = value * 2;
+        return Math.abs(halves - Math.rint(halves)) <= 2 * BOUNDARY_ULPS * Math.ulp(value);
+    }
+
+    static long round(double value, RoundingMode mode) {
+        double floor = Math.floor(value);
+        if (floor == value) {
+            return (long) value;
+        }
+        double fraction = value - floor;
+        boolean negative = value < 0;
+        switch (mode) {
+            case FLOOR: return (long) floor;
+            case CEILING: return (long) floor + 1;
+            case DOWN: return negative ? (long) floor + 1 : (long) floor;
+            case UP: return negative ? (long) floor : (long) floor + 1;
+            case HALF_UP:
+                if (fraction == 0.5) return negative ? (long) floor : (long) floor + 1;
+                break;
+            case HALF_DOWN:
+                if (fraction == 0.5) return negative ? (long) floor + 1 : (long) floor;
+                break;
+            case HALF_EVEN:
+                if (fraction == 0.5) return (long) floor % 2 == 0 ? (long) floor : (long) floor + 1;
+                break;
+            default:
+                throw new ArithmeticException("Rounding necessary");
+        }
+        return fraction < 0.5 ? (long) floor : (long) floor + 1;
+    }
+
+    /**
+     * Whether a magnitude should move away from zero given the first dropped digit
+     * and whether any later dropped digit was non-zero.
+     */
+    private static boolean roundsAway(long magnitude, int firstDropped, boolean sticky,
+                                      boolean negative, RoundingMode mode) {
+        boolean inexact = firstDropped != 0 || sticky;
+        if (!inexact) {
+            return false;
+        }
+        boolean aboveHalf = firstDropped > 5 || (firstDropped == 5 && sticky);
+        boolean half = firstDropped == 5 && !sticky;
+        switch (mode) {
+            case UP: return true;
+            case DOWN: return false;
+            case CEILING: return !negative;
+            case FLOOR: return negative;
+            case HALF_UP: return aboveHalf || half;
+            case HALF_DOWN: return aboveHalf;
+            case HALF_EVEN: return aboveHalf || (half && (magnitude & 1) == 1);
+            default: throw new ArithmeticException("Rounding necessary");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.izpit.currencyconverter;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.AttributeSet;
+import android.view.View;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+/**
+ * Line chart for a {@link TimeSeries}. The series is reduced with {@link Lttb}
+ * to about one point per horizontal pixel before the path is built, so drawing
+ * cost does not grow with the length of the range.
+ */
+public class RateChartView extends View {
+    private final Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Path path = new Path();
+    private TimeSeries series;
+
+    public RateChartView(Context context) {
+        this(context, null);
+    }
+
+    public RateChartView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        linePaint.setStyle(Paint.Style.STROKE);
+        linePaint.setStrokeWidth(getResources().getDisplayMetrics().density * 2);
+        linePaint.setColor(ContextCompat.getColor(context, R.color.app_red));
+    }
+
+    public void setSeries(@Nullable TimeSeries series) {
+        this.series = series;
+        rebuildPath();
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        rebuildPath();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        canvas.drawPath(path, linePaint);
+    }
+
+    private void rebuildPath() {
+        path.reset();
+        int width = getWidth() - getPaddingLeft() - getPaddingRight();
+        int height = getHeight() - getPaddingTop() - getPaddingBottom();
+        if (series == null || series.size() < 2 || width <= 0 || height <= 0) {
+            return;
+        }
+
+        TimeSeries points = Lttb.downsample(series, width);
+        float firstDay = points.dayAt(0);
+        float daySpan = Math.max(1, points.dayAt(points.size() - 1) - firstDay);
+        double min = points.minRate();
+        double rateSpan = Math.max(points.maxRate() - min, 1e-9);
+
+        for (int i = 0; i < points.size(); i++) {
+            float x = getPaddingLeft() + (points.dayAt(i) - firstDay) / daySpan * width;
+            float y = getPaddingTop() + (float) ((1 - (points.rateAt(i) - min) / rateSpan) * height);
+            if (i == 0) {
+                path.moveTo(x, y);
+            } else {
+                path.lineTo(x, y);
+            }
+        }
+    }
+}
@@ -4,26 +4,53 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
-import java.util.ArrayList;
 import java.util.List;
 
 class CurrencyRate {
-    private String currency;
+    private CurrencyRegistry.Currency currency;
     private double rate;
+    // Display text is built once per data update, off the UI thread, so binding only copies it.
+    private String displayName;
+    private String rateText;
 
-    public CurrencyRate(String currency, double rate) {
+    public CurrencyRate(CurrencyRegistry.Currency currency, double rate, FixedPointFormatter formatter) {
         this.currency = currency;
         this.rate = rate;
+        this.displayName = currency.getDisplayName();
+        formatter.reset();
+        this.rateText = formatter.appendDouble(rate, 4).toString();
     }
 
-    public String getCurrency() { return currency; }
+    public CurrencyRegistry.Currency getCurrency() { return currency; }
     public double getRate() { return rate; }
+    public String getDisplayName() { return displayName; }
+    public String getRateText() { return rateText; }
 }
 
 
-class RatesAdapter extends RecyclerView.Adapter<RatesAdapter.RateViewHolder> {
-    private List<CurrencyRate> rates = new ArrayList<>();
+class RatesAdapter extends ListAdapter<CurrencyRate, RatesAdapter.RateViewHolder> {
+    private static final DiffUtil.ItemCallback<CurrencyRate> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<CurrencyRate>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull CurrencyRate oldItem, @NonNull CurrencyRate newItem) {
+                    return oldItem.getCurrency().id == newItem.getCurrency().id;
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull CurrencyRate oldItem, @NonNull CurrencyRate newItem) {
+                    return oldItem.getRateText().equals(newItem.getRateText())
+                            && oldItem.getDisplayName().equals(newItem.getDisplayName());
+                }
+            };
+
+    RatesAdapter() {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
+    }
 
     @Override
     public RateViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
@@ -34,19 +61,18 @@ class RatesAdapter extends RecyclerView.Adapter<RatesAdapter.RateViewHolder> {
 
     @Override
     public void onBindViewHolder(RateViewHolder holder, int position) {
-        CurrencyRate rate = rates.get(position);
-        holder.currencyText.setText(rate.getCurrency());
-        holder.rateText.setText(String.format("%.4f", rate.getRate()));
+        CurrencyRate rate = getItem(position);
+        holder.currencyText.setText(rate.getDisplayName());
+        holder.rateText.setText(rate.getRateText());
     }
 
     @Override
-    public int getItemCount() {
-        return rates.size();
+    public long getItemId(int position) {
+        return getItem(position).getCurrency().id;
     }
 
     public void setRates(List<CurrencyRate> rates) {
-        this.rates = rates;
-        notifyDataSetChanged();
+        submitList(rates);
     }
 
     static class RateViewHolder extends RecyclerView.ViewHolder {
@@ -0,0 +1,272 @@
+package com.izpit.currencyconverter;
+
+import android.content.Context;
+import android.util.Log;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Single-flight request layer. Concurrent requests for the same resource share
+ * one fetch, and a resource that was fetched successfully within
+ * {@link #MIN_REFRESH_INTERVAL_MS} is answered from that result without going
+ * to the network again. Results are persisted once, not once per caller. Rates
+ * come from whichever {@link RateProvider} wins the {@link RateRouter} race; the
+ * catalog comes from Frankfurter.
+ */
+final class RateFetcher {
+    static final long MIN_REFRESH_INTERVAL_MS = 5000;
+    private static final String TAG = "RateFetcher";
+
+    /** A {@link RateProvider.Listener} that can also be offered the last good result. */
+    interface Listener<T> extends RateProvider.Listener<T> {
+        /**
+         * The fetch failed, or was refused by an open circuit, but {@code stale} is the
+         * last good result and can be shown in its place.
+         */
+        default void onStale(T stale, IOException e) {
+            onError(e);
+        }
+    }
+
+    private interface BodyHandler<T> {
+        T handle(ResponseBody body) throws IOException;
+    }
+
+    /** Starts the actual fetch for a resource that no caller is already waiting on. */
+    private interface Source<T> {
+        RateProvider.Cancellable start(Listener<T> done);
+    }
+
+    private static final class Flight<T> {
+        final List<Listener<T>> listeners = new ArrayList<>();
+        RateProvider.Cancellable upstream;
+        boolean cancelled;
+    }
+
+    private static final class Completed {
+        final Object result;
+        final long at;
+
+        Completed(Object result, long at) {
+            this.result = result;
+            this.at = at;
+        }
+    }
+
+    private static RateFetcher instance;
+
+    private final OkHttpClient client;
+    private final RateRouter router;
+    private final RateStore rateStore;
+    private final Map<String, Flight<?>> inFlight = new HashMap<>();
+    private final Map<String, Completed> recent = new HashMap<>();
+
+    private final AtomicLong networkRequests = new AtomicLong();
+    private final AtomicLong mergedRequests = new AtomicLong();
+    private final AtomicLong throttledRequests = new AtomicLong();
+
+    private RateFetcher(Context context) {
+        client = HttpClientProvider.get(context);
+        router = RateRouter.getInstance(context);
+        rateStore = new RateStore(context);
+    }
+
+    static synchronized RateFetcher getInstance(Context context) {
+        if (instance == null) {
+            instance = new RateFetcher(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /** Fetches /currencies, stores it and loads it into {@link CurrencyRegistry}. */
+    RateProvider.Cancellable fetchCatalog(Listener<CurrencyRegistry> listener) {
+        String url = FrankfurterProvider.currenciesUrl();
+        return fetch(url, done -> get(url, body -> {
+            List<String> codes = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            RatesParser.parseCurrencies(body.charStream(), codes, names);
+            rateStore.saveCatalog(codes, names);
+            return CurrencyRegistry.getInstance();
+        }, done), listener);
+    }
+
+    /** Fetches latest rates for {@code baseId}, or the providers' default base when {@code baseId} is negative, and stores them. */
+    RateProvider.Cancellable fetchLatest(int baseId, Listener<RateSnapshot> listener) {
+        String key = baseId < 0 ? "latest" : "latest:" + CurrencyRegistry.getInstance().codeOf(baseId);
+        return fetch(key, done -> router.fetchLatest(baseId, new Listener<RateSnapshot>() {
+            @Override
+            public void onResult(RateSnapshot snapshot) {
+                try {
+                    rateStore.saveSnapshot(snapshot);
+                } catch (RuntimeException e) {
+                    done.onError(new IOException(e));
+                    return;
+                }
+                done.onResult(snapshot);
+            }
+
+            @Override
+            public void onError(IOException e) {
+                done.onError(e);
+            }
+        }), listener);
+    }
+
+    long getNetworkRequestCount() { return networkRequests.get(); }
+    long getMergedRequestCount() { return mergedRequests.get(); }
+    long getThrottledRequestCount() { return throttledRequests.get(); }
+
+    /**
+     * Joins or starts the fetch for {@code key}. Cancelling the returned handle only
+     * detaches {@code listener}; the fetch itself is cancelled once no caller is left.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> RateProvider.Cancellable fetch(String key, Source<T> source, Listener<T> listener) {
+        Flight<T> flight = null;
+        T throttled = null;
+        synchronized (this) {
+            Completed completed = recent.get(key);
+            if (completed != null && System.currentTimeMillis() - completed.at < MIN_REFRESH_INTERVAL_MS) {
+                throttledRequests.incrementAndGet();
+                throttled = (T) completed.result;
+            } else {
+                flight = (Flight<T>) inFlight.get(key);
+                if (flight != null) {
+                    mergedRequests.incrementAndGet();
+                    flight.listeners.add(listener);
+                    Flight<T> joined = flight;
+                    return () -> leave(key, joined, listener);
+                }
+                flight = new Flight<>();
+                flight.listeners.add(listener);
+                inFlight.put(key, flight);
+            }
+        }
+        if (throttled != null) {
+            return deliver(throttled, listener);
+        }
+
+        networkRequests.incrementAndGet();
+        Flight<T> started = flight;
+        RateProvider.Cancellable upstream = source.start(new Listener<T>() {
+            @Override
+            public void onResult(T result) {
+                List<Listener<T>> waiting;
+                synchronized (RateFetcher.this) {
+                    waiting = land(key, started);
+                    recent.put(key, new Completed(result, System.currentTimeMillis()));
+                }
+                for (Listener<T> waiter : waiting) {
+                    waiter.onResult(result);
+                }
+            }
+
+            @Override
+            public void onError(IOException e) {
+                fail(key, started, e);
+            }
+        });
+        boolean cancelNow;
+        synchronized (this) {
+            started.upstream = upstream;
+            cancelNow = started.cancelled;
+        }
+        if (cancelNow) {
+            upstream.cancel();
+        }
+        return () -> leave(key, started, listener);
+    }
+
+    /**
+     * Hands a throttled result to {@code listener} on the dispatcher that runs network
+     * callbacks, so callers see the same threading whether or not the network was used.
+     */
+    private <T> RateProvider.Cancellable deliver(T result, Listener<T> listener) {
+        Future<?> task = client.dispatcher().executorService().submit(() -> listener.onResult(result));
+        return () -> task.cancel(false);
+    }
+
+    /** Detaches {@code listener} and cancels the flight if it was the last one waiting. */
+    private <T> void leave(String key, Flight<T> flight, Listener<T> listener) {
+        RateProvider.Cancellable upstream;
+        synchronized (this) {
+            if (!flight.listeners.remove(listener) || !flight.listeners.isEmpty()) {
+                return;
+            }
+            if (inFlight.get(key) == flight) {
+                inFlight.remove(key);
+            }
+            flight.cancelled = true;
+            upstream = flight.upstream;
+        }
+        if (upstream != null) {
+            upstream.cancel();
+        }
+    }
+
+    // Called with the lock held. A cancelled flight may already have been replaced under the same key.
+    private <T> List<Listener<T>> land(String key, Flight<T> flight) {
+        if (inFlight.get(key) == flight) {
+            inFlight.remove(key);
+        }
+        List<Listener<T>> waiting = new ArrayList<>(flight.listeners);
+        flight.listeners.clear();
+        return waiting;
+    }
+
+    /** A plain GET whose successful body is turned into a result by {@code handler}. */
+    private <T> RateProvider.Cancellable get(String url, BodyHandler<T> handler, Listener<T> done) {
+        Call call = client.newCall(new Request.Builder().url(url).build());
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                done.onError(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                T result;
+                try (ResponseBody body = response.body()) {
+                    if (!response.isSuccessful()) {
+                        done.onError(new IOException("HTTP " + response.code() + " for " + url));
+                        return;
+                    }
+                    result = handler.handle(body);
+                } catch (IOException | RuntimeException e) {
+                    done.onError(e instanceof IOException ? (IOException) e : new IOException(e));
+                    return;
+                }
+                done.onResult(result);
+            }
+        });
+        return call::cancel;
+    }
+
+    private <T> void fail(String key, Flight<T> flight, IOException e) {
+        List<Listener<T>> waiting;
+        boolean cancelled;
+        synchronized (this) {
+            cancelled = flight.cancelled;
+            waiting = land(key, flight);
+        }
+        if (e instanceof FetchPolicy.CircuitOpenException) {
+            Log.w(TAG, "Skipped " + key + ": " + e.getMessage());
+        } else if (!cancelled) {
+            Log.w(TAG, "Request failed: " + key, e);
+        }
+        for (Listener<T> waiter : waiting) {
+            waiter.onError(e);
+        }
+    }
+}
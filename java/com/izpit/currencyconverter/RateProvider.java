@@ -0,0 +1,29 @@
+package com.izpit.currencyconverter;
+
+import java.io.IOException;
+
+/**
+ * A source of latest rates. {@link RateRouter} races several of these against
+ * each other, so implementations must call back on their own threads and stop
+ * promptly when their request is cancelled.
+ */
+interface RateProvider {
+    /** An outstanding fetch. Cancelling one that has already finished does nothing. */
+    interface Cancellable {
+        Cancellable NONE = () -> {};
+
+        void cancel();
+    }
+
+    /** Receives the outcome of one fetch, on whichever thread produced it. */
+    interface Listener<T> {
+        void onResult(T result);
+        void onError(IOException e);
+    }
+
+    /** Short stable name, used to key statistics and metrics. */
+    String getName();
+
+    /** Fetches rates against {@code baseId}, or the provider's default base when it is negative. */
+    Cancellable fetchLatest(int baseId, Listener<RateSnapshot> listener);
+}
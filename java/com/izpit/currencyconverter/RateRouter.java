@@ -0,0 +1,315 @@
+package com.izpit.currencyconverter;
+
+import android.content.Context;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.OkHttpClient;
+
+/**
+ * Races {@link RateProvider}s for /latest. The best-ranked {@link #FAN_OUT}
+ * providers are queried in parallel and the first valid snapshot wins; the
+ * slower calls are cancelled. A provider that fails or overruns its latency
+ * budget is replaced by the next one in rank order. Every outcome feeds the
+ * provider's {@link Stats}, which decide the ranking for later requests.
+ */
+final class RateRouter {
+    static final int FAN_OUT = 2;
+    static final long MIN_BUDGET_MS = 1500;
+    static final long MAX_BUDGET_MS = 8000;
+    // Expected latency of a provider that has not answered yet, so new ones still get tried.
+    private static final long UNKNOWN_LATENCY_MICROS = 500_000;
+
+    /** Outcome counters for one provider; latency of successful calls goes to {@link Metrics}. */
+    static final class Stats {
+        final LatencyHistogram latency;
+        final AtomicLong successes = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong timeouts = new AtomicLong();
+        final AtomicLong cancelled = new AtomicLong();
+        final AtomicLong wins = new AtomicLong();
+
+        Stats(String name) {
+            latency = Metrics.histogram("provider." + name);
+        }
+
+        /**
+         * Expected time to a usable answer: mean latency divided by a smoothed
+         * success ratio. Lost races are not counted against a provider.
+         */
+        double score() {
+            long attempts = successes.get() + failures.get() + timeouts.get();
+            double successRatio = (successes.get() + 1.0) / (attempts + 2.0);
+            long mean = latency.getCount() > 0 ? latency.getMeanMicros() : UNKNOWN_LATENCY_MICROS;
+            return mean / successRatio;
+        }
+
+        /** Three times the provider's p95, within {@link #MIN_BUDGET_MS} and {@link #MAX_BUDGET_MS}. */
+        long budgetMillis() {
+            if (latency.getCount() < 5) {
+                return MAX_BUDGET_MS;
+            }
+            long budget = 3 * latency.getPercentileMicros(95) / 1000;
+            return Math.max(MIN_BUDGET_MS, Math.min(MAX_BUDGET_MS, budget));
+        }
+    }
+
+    private static RateRouter instance;
+
+    private final List<RateProvider> providers;
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+    RateRouter(List<RateProvider> providers) {
+        this.providers = new ArrayList<>(providers);
+        for (RateProvider provider : providers) {
+            stats.put(provider.getName(), new Stats(provider.getName()));
+        }
+    }
+
+    static synchronized RateRouter getInstance(Context context) {
+        if (instance == null) {
+            OkHttpClient client = HttpClientProvider.get(context);
+            List<RateProvider> providers = new ArrayList<>();
+            providers.add(new FrankfurterProvider("frankfurter.app", FrankfurterProvider.APP_URL, client));
+            providers.add(new FrankfurterProvider("frankfurter.dev", FrankfurterProvider.DEV_URL, client));
+            File file = new File(context.getFilesDir(), FileRateProvider.FILE_NAME);
+            if (file.exists()) {
+                providers.add(new FileRateProvider(file, 0));
+            }
+            instance = new RateRouter(providers);
+        }
+        return instance;
+    }
+
+    /** Providers, best first. */
+    List<RateProvider> rank() {
+        // Scores move while calls complete, so take them once before sorting.
+        Map<RateProvider, Double> scores = new HashMap<>();
+        for (RateProvider provider : providers) {
+            scores.put(provider, statsFor(provider).score());
+        }
+        List<RateProvider> ranked = new ArrayList<>(providers);
+        Collections.sort(ranked, (a, b) -> Double.compare(scores.get(a), scores.get(b)));
+        return ranked;
+    }
+
+    Stats statsFor(RateProvider provider) {
+        return stats.get(provider.getName());
+    }
+
+    /** Starts a race; cancelling the returned handle stops it without reporting to {@code listener}. */
+    RateProvider.Cancellable fetchLatest(int baseId, RateProvider.Listener<RateSnapshot> listener) {
+        Race race = new Race(baseId, rank(), listener);
+        race.start();
+        return race;
+    }
+
+    /** Blocking form of {@link #fetchLatest} for callers already on a worker thread. */
+    RateSnapshot fetchLatestBlocking(int baseId) throws IOException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<RateSnapshot> result = new AtomicReference<>();
+        AtomicReference<IOException> error = new AtomicReference<>();
+        fetchLatest(baseId, new RateProvider.Listener<RateSnapshot>() {
+            @Override
+            public void onResult(RateSnapshot snapshot) {
+                result.set(snapshot);
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(IOException e) {
+                error.set(e);
+                latch.countDown();
+            }
+        });
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching rates");
+        }
+        if (error.get() != null) {
+            throw error.get();
+        }
+        return result.get();
+    }
+
+    /** One line per provider in rank order, for the debug screen. */
+    String describe() {
+        StringBuilder text = new StringBuilder();
+        for (RateProvider provider : rank()) {
+            Stats providerStats = statsFor(provider);
+            text.append("\nprovider ").append(provider.getName())
+                    .append("  wins=").append(providerStats.wins.get())
+                    .append("  ok=").append(providerStats.successes.get())
+                    .append("  failed=").append(providerStats.failures.get())
+                    .append("  timeouts=").append(providerStats.timeouts.get())
+                    .append("  cancelled=").append(providerStats.cancelled.get())
+                    .append("  budget=").append(providerStats.budgetMillis()).append("ms");
+        }
+        return text.toString();
+    }
+
+    /** One fan-out. All state is guarded by the race itself; listeners are called outside the lock. */
+    private final class Race implements RateProvider.Cancellable {
+        private final int baseId;
+        private final List<RateProvider> ranked;
+        private final RateProvider.Listener<RateSnapshot> listener;
+        private final RateProvider.Cancellable[] requests;
+        private final ScheduledFuture<?>[] budgets;
+        private final boolean[] settled;
+        private int launched;
+        private int pending;
+        private boolean done;
+        private IOException lastError;
+
+        Race(int baseId, List<RateProvider> ranked, RateProvider.Listener<RateSnapshot> listener) {
+            this.baseId = baseId;
+            this.ranked = ranked;
+            this.listener = listener;
+            requests = new RateProvider.Cancellable[ranked.size()];
+            budgets = new ScheduledFuture<?>[ranked.size()];
+            settled = new boolean[ranked.size()];
+        }
+
+        void start() {
+            if (ranked.isEmpty()) {
+                listener.onError(new IOException("No rate providers"));
+                return;
+            }
+            synchronized (this) {
+                while (!done && launched < FAN_OUT && launched < ranked.size()) {
+                    launch(launched++);
+                }
+            }
+        }
+
+        // Called with the lock held.
+        private void launch(int index) {
+            RateProvider provider = ranked.get(index);
+            long budget = statsFor(provider).budgetMillis();
+            long started = System.nanoTime();
+            pending++;
+            requests[index] = provider.fetchLatest(baseId, new RateProvider.Listener<RateSnapshot>() {
+                @Override
+                public void onResult(RateSnapshot result) {
+                    finish(index, started, result, null);
+                }
+
+                @Override
+                public void onError(IOException e) {
+                    finish(index, started, null, e);
+                }
+            });
+            if (!settled[index]) {
+                budgets[index] = timer.schedule(() -> finish(index, started, null,
+                        new InterruptedIOException(provider.getName() + " exceeded " + budget + "ms")),
+                        budget, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        /**
+         * The caller no longer wants an answer. Outstanding calls are cancelled and
+         * left out of the providers' stats, since nothing was learned about them.
+         */
+        @Override
+        public void cancel() {
+            List<RateProvider.Cancellable> outstanding = new ArrayList<>();
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                settleOutstanding(outstanding, false);
+            }
+            for (RateProvider.Cancellable request : outstanding) {
+                request.cancel();
+            }
+        }
+
+        // Called with the lock held; the caller cancels the collected requests after releasing it.
+        private void settleOutstanding(List<RateProvider.Cancellable> into, boolean lostRace) {
+            for (int i = 0; i < launched; i++) {
+                if (settled[i]) {
+                    continue;
+                }
+                settled[i] = true;
+                pending--;
+                if (budgets[i] != null) {
+                    budgets[i].cancel(false);
+                }
+                if (lostRace) {
+                    statsFor(ranked.get(i)).cancelled.incrementAndGet();
+                }
+                if (requests[i] != null) {
+                    into.add(requests[i]);
+                }
+            }
+        }
+
+        private void finish(int index, long started, RateSnapshot result, IOException error) {
+            Stats providerStats = statsFor(ranked.get(index));
+            boolean timedOut = error instanceof InterruptedIOException;
+            List<RateProvider.Cancellable> losers = new ArrayList<>();
+            boolean won = false;
+            boolean lost = false;
+            synchronized (this) {
+                if (settled[index]) {
+                    return;
+                }
+                settled[index] = true;
+                pending--;
+                if (budgets[index] != null) {
+                    budgets[index].cancel(false);
+                }
+
+                if (result != null && (baseId < 0 || result.getBaseId() == baseId)) {
+                    providerStats.latency.record(System.nanoTime() - started);
+                    providerStats.successes.incrementAndGet();
+                    if (!done) {
+                        done = true;
+                        won = true;
+                        providerStats.wins.incrementAndGet();
+                        settleOutstanding(losers, true);
+                    }
+                } else {
+                    (timedOut ? providerStats.timeouts : providerStats.failures).incrementAndGet();
+                    lastError = error != null ? error
+                            : new IOException(ranked.get(index).getName() + " returned the wrong base");
+                    if (timedOut && requests[index] != null) {
+                        losers.add(requests[index]);
+                    }
+                    if (!done && launched < ranked.size()) {
+                        launch(launched++);
+                    } else if (!done && pending == 0) {
+                        done = true;
+                        lost = true;
+                    }
+                }
+            }
+
+            for (RateProvider.Cancellable loser : losers) {
+                loser.cancel();
+            }
+            if (won) {
+                listener.onResult(result);
+            } else if (lost) {
+                listener.onError(lastError);
+            }
+        }
+    }
+}
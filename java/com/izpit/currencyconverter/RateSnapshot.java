@@ -0,0 +1,79 @@
+package com.izpit.currencyconverter;
+
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * One set of rates from /latest, held as a primitive vector indexed by
+ * {@link CurrencyRegistry} id so that any from/to pair can be converted locally
+ * by triangulating through the base. Currencies the snapshot does not quote hold NaN.
+ */
+class RateSnapshot {
+    private final int baseId;
+    private final double[] rates;
+    private final long fetchedAt;
+
+    RateSnapshot(int baseId, double[] rates, long fetchedAt) {
+        this.baseId = baseId;
+        this.rates = rates;
+        this.fetchedAt = fetchedAt;
+    }
+
+    /** Builds a snapshot from the first {@code count} (id, rate) pairs quoted against {@code baseId}. */
+    static RateSnapshot of(int baseId, int[] ids, double[] values, int count, long fetchedAt) {
+        double[] rates = new double[CurrencyRegistry.getInstance().size()];
+        Arrays.fill(rates, Double.NaN);
+        rates[baseId] = 1.0;
+        for (int i = 0; i < count; i++) {
+            rates[ids[i]] = values[i];
+        }
+        return new RateSnapshot(baseId, rates, fetchedAt);
+    }
+
+    int getBaseId() { return baseId; }
+    long getFetchedAt() { return fetchedAt; }
+
+    /** Length of the rate vector; ids at or above this are not quoted. */
+    int size() { return rates.length; }
+
+    double rateOf(int id) {
+        return id < rates.length ? rates[id] : Double.NaN;
+    }
+
+    boolean hasRate(int id) {
+        return id >= 0 && id < rates.length && !Double.isNaN(rates[id]);
+    }
+
+    /**
+     * Re-expresses every rate against {@code newBaseId}, which must be quoted. No
+     * network data is needed because each cross rate is derived from this vector.
+     */
+    RateSnapshot rebase(int newBaseId) {
+        if (newBaseId == baseId) {
+            return this;
+        }
+        double divisor = rates[newBaseId];
+        double[] rebased = new double[rates.length];
+        for (int id = 0; id < rates.length; id++) {
+            rebased[id] = rates[id] / divisor;
+        }
+        rebased[newBaseId] = 1.0;
+        return new RateSnapshot(newBaseId, rebased, fetchedAt);
+    }
+
+    double convert(int fromId, int toId, double amount) {
+        return amount * rates[toId] / rates[fromId];
+    }
+
+    /** Units of {@code toId} per unit of {@code fromId}. */
+    double crossRate(int fromId, int toId) {
+        return rates[toId] / rates[fromId];
+    }
+
+    /** Converts {@code amountMinor} of {@code fromId} into minor units of {@code toId}; see {@link Money#convert}. */
+    long convertMinor(int fromId, int toId, long amountMinor, RoundingMode mode) {
+        CurrencyRegistry registry = CurrencyRegistry.getInstance();
+        return Money.convert(amountMinor, registry.scaleOf(fromId), crossRate(fromId, toId),
+                registry.scaleOf(toId), mode);
+    }
+}
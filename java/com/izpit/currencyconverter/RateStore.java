@@ -0,0 +1,212 @@
+package com.izpit.currencyconverter;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import androidx.annotation.NonNull;
+import androidx.room.Dao;
+import androidx.room.Entity;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.PrimaryKey;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the last fetched currency catalog and rate snapshots so screens can
+ * render immediately on cold start and only refetch once the data goes stale.
+ */
+class RateStore {
+    static final String PREFERENCES_NAME = "AppPreferences";
+    static final String FRESHNESS_MINUTES_KEY = "RateFreshnessMinutes";
+    static final long DEFAULT_FRESHNESS_MINUTES = 60;
+
+    @Entity(tableName = "rate_snapshots")
+    public static class RateSnapshotEntity {
+        @PrimaryKey
+        @NonNull
+        private String base;
+        private long fetchedAt;
+        @NonNull
+        private String codes;
+        @NonNull
+        private byte[] rates;
+
+        public RateSnapshotEntity(@NonNull String base, long fetchedAt, @NonNull String codes, @NonNull byte[] rates) {
+            this.base = base;
+            this.fetchedAt = fetchedAt;
+            this.codes = codes;
+            this.rates = rates;
+        }
+
+        @NonNull public String getBase() { return base; }
+        public long getFetchedAt() { return fetchedAt; }
+        @NonNull public String getCodes() { return codes; }
+        @NonNull public byte[] getRates() { return rates; }
+    }
+
+    @Entity(tableName = "currencies")
+    public static class CurrencyEntity {
+        @PrimaryKey
+        @NonNull
+        private String code;
+        @NonNull
+        private String name;
+        private int position;
+        private long fetchedAt;
+
+        public CurrencyEntity(@NonNull String code, @NonNull String name, int position, long fetchedAt) {
+            this.code = code;
+            this.name = name;
+            this.position = position;
+            this.fetchedAt = fetchedAt;
+        }
+
+        @NonNull public String getCode() { return code; }
+        @NonNull public String getName() { return name; }
+        public int getPosition() { return position; }
+        public long getFetchedAt() { return fetchedAt; }
+    }
+
+    @Dao
+    public interface RateSnapshotDao {
+        @Insert(onConflict = OnConflictStrategy.REPLACE)
+        void upsertSnapshot(RateSnapshotEntity snapshot);
+
+        @Query("SELECT * FROM rate_snapshots WHERE base = :base")
+        RateSnapshotEntity getSnapshot(String base);
+
+        @Query("SELECT * FROM rate_snapshots ORDER BY fetchedAt DESC LIMIT 1")
+        RateSnapshotEntity getLatestSnapshot();
+
+        @Insert(onConflict = OnConflictStrategy.REPLACE)
+        void insertCurrencies(List<CurrencyEntity> currencies);
+
+        @Query("DELETE FROM currencies")
+        void deleteCurrencies();
+
+        @Transaction
+        default void replaceCurrencies(List<CurrencyEntity> currencies) {
+            deleteCurrencies();
+            insertCurrencies(currencies);
+        }
+
+        @Query("SELECT * FROM currencies ORDER BY position")
+        List<CurrencyEntity> getCurrencies();
+    }
+
+    private final RateSnapshotDao dao;
+    private final SharedPreferences preferences;
+
+    RateStore(Context context) {
+        dao = AppDatabase.getInstance(context).rateSnapshotDao();
+        preferences = context.getApplicationContext()
+                .getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+
+    long getFreshnessWindowMillis() {
+        return TimeUnit.MINUTES.toMillis(
+                preferences.getLong(FRESHNESS_MINUTES_KEY, DEFAULT_FRESHNESS_MINUTES));
+    }
+
+    void setFreshnessWindowMinutes(long minutes) {
+        preferences.edit().putLong(FRESHNESS_MINUTES_KEY, minutes).apply();
+    }
+
+    boolean isFresh(long fetchedAt) {
+        return System.currentTimeMillis() - fetchedAt < getFreshnessWindowMillis();
+    }
+
+    RateSnapshot loadSnapshot(int baseId) {
+        long start = System.nanoTime();
+        RateSnapshotEntity entity = dao.getSnapshot(CurrencyRegistry.getInstance().codeOf(baseId));
+        Metrics.recordSince("db.snapshot.load", start);
+        return toSnapshot(entity);
+    }
+
+    RateSnapshot loadLatestSnapshot() {
+        long start = System.nanoTime();
+        RateSnapshotEntity entity = dao.getLatestSnapshot();
+        Metrics.recordSince("db.snapshot.loadLatest", start);
+        return toSnapshot(entity);
+    }
+
+    void saveSnapshot(RateSnapshot snapshot) {
+        CurrencyRegistry registry = CurrencyRegistry.getInstance();
+        StringBuilder codes = new StringBuilder(snapshot.size() * 4);
+        ByteBuffer rates = ByteBuffer.allocate(snapshot.size() * Double.BYTES);
+        for (int id = 0; id < snapshot.size(); id++) {
+            if (!snapshot.hasRate(id)) continue;
+            if (codes.length() > 0) codes.append(',');
+            codes.append(registry.codeOf(id));
+            rates.putDouble(snapshot.rateOf(id));
+        }
+        byte[] packed = new byte[rates.position()];
+        System.arraycopy(rates.array(), 0, packed, 0, packed.length);
+        long start = System.nanoTime();
+        dao.upsertSnapshot(new RateSnapshotEntity(registry.codeOf(snapshot.getBaseId()),
+                snapshot.getFetchedAt(), codes.toString(), packed));
+        Metrics.recordSince("db.snapshot.save", start);
+    }
+
+    /**
+     * Loads the stored catalog into {@link CurrencyRegistry}. Returns true if a
+     * catalog was stored and it is still within the freshness window.
+     */
+    boolean restoreCatalog() {
+        long start = System.nanoTime();
+        List<CurrencyEntity> stored = dao.getCurrencies();
+        Metrics.recordSince("db.catalog.load", start);
+        if (stored.isEmpty()) {
+            return false;
+        }
+        List<String> codes = new ArrayList<>(stored.size());
+        List<String> names = new ArrayList<>(stored.size());
+        for (CurrencyEntity currency : stored) {
+            codes.add(currency.getCode());
+            names.add(currency.getName());
+        }
+        CurrencyRegistry.getInstance().loadCatalog(codes, names);
+        return isFresh(stored.get(0).getFetchedAt());
+    }
+
+    /** Stores a freshly fetched catalog and loads it into {@link CurrencyRegistry}. */
+    void saveCatalog(List<String> codes, List<String> names) {
+        long now = System.currentTimeMillis();
+        List<CurrencyEntity> entities = new ArrayList<>(codes.size());
+        for (int i = 0; i < codes.size(); i++) {
+            entities.add(new CurrencyEntity(codes.get(i), names.get(i), i, now));
+        }
+        long start = System.nanoTime();
+        dao.replaceCurrencies(entities);
+        Metrics.recordSince("db.catalog.replace", start);
+        CurrencyRegistry.getInstance().loadCatalog(codes, names);
+    }
+
+    private static RateSnapshot toSnapshot(RateSnapshotEntity entity) {
+        if (entity == null) {
+            return null;
+        }
+        CurrencyRegistry registry = CurrencyRegistry.getInstance();
+        String codes = entity.getCodes();
+        ByteBuffer buffer = ByteBuffer.wrap(entity.getRates());
+        // One double per code; scanning for commas avoids split's regex and array.
+        int count = buffer.remaining() / Double.BYTES;
+        int[] ids = new int[count];
+        double[] rates = new double[count];
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            int end = codes.indexOf(',', start);
+            if (end < 0) {
+                end = codes.length();
+            }
+            ids[i] = registry.intern(codes.substring(start, end));
+            rates[i] = buffer.getDouble();
+            start = end + 1;
+        }
+        return RateSnapshot.of(registry.intern(entity.getBase()), ids, rates, count, entity.getFetchedAt());
+    }
+}
@@ -0,0 +1,128 @@
+package com.izpit.currencyconverter;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Build;
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically refreshes the stored snapshot for the user's base currency so the
+ * rates screen opens on fresh data without a network call. A notification is
+ * posted only when some rate moved by more than {@link #CHANGE_THRESHOLD}.
+ */
+public class RateSyncWorker extends Worker {
+    static final String CHANNEL_ID = "CURRENCY_UPDATES";
+    static final double CHANGE_THRESHOLD = 0.005;
+    private static final String WORK_NAME = "rate-sync";
+    private static final String BASE_CURRENCY_KEY = "BaseCurrency";
+    private static final long MIN_PERIOD_MINUTES = 15;
+    private static final int NOTIFICATION_ID = 1;
+
+    public RateSyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /** Schedules the sync at half the freshness window so stored data never goes stale. */
+    static void schedule(Context context) {
+        long period = Math.max(MIN_PERIOD_MINUTES,
+                TimeUnit.MILLISECONDS.toMinutes(new RateStore(context).getFreshnessWindowMillis()) / 2);
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .setRequiresBatteryNotLow(true)
+                .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(RateSyncWorker.class, period, TimeUnit.MINUTES)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    static void createNotificationChannel(Context context) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(
+                    CHANNEL_ID,
+                    "Currency Updates",
+                    NotificationManager.IMPORTANCE_DEFAULT
+            );
+            channel.setDescription("Notifications for currency rate updates");
+            context.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+        }
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        RateStore rateStore = new RateStore(context);
+        SharedPreferences preferences =
+                context.getSharedPreferences(RateStore.PREFERENCES_NAME, Context.MODE_PRIVATE);
+        CurrencyRegistry registry = CurrencyRegistry.getInstance();
+        int baseId = registry.intern(preferences.getString(BASE_CURRENCY_KEY, "USD"));
+
+        RateSnapshot previous = rateStore.loadSnapshot(baseId);
+        RateSnapshot latest;
+        try {
+            latest = RateRouter.getInstance(context).fetchLatestBlocking(baseId);
+        } catch (IOException e) {
+            return Result.retry();
+        }
+        rateStore.saveSnapshot(latest);
+        CurrencyRepository.getInstance(context).publish(latest);
+
+        int changed = countChangedRates(previous, latest);
+        if (changed > 0) {
+            notifyRatesChanged(context, changed, registry.codeOf(baseId));
+        }
+        return Result.success();
+    }
+
+    static int countChangedRates(RateSnapshot previous, RateSnapshot latest) {
+        if (previous == null || previous.getBaseId() != latest.getBaseId()) {
+            return 0;
+        }
+        int changed = 0;
+        int size = Math.min(previous.size(), latest.size());
+        for (int id = 0; id < size; id++) {
+            if (previous.hasRate(id) && latest.hasRate(id)) {
+                double before = previous.rateOf(id);
+                if (Math.abs(latest.rateOf(id) - before) / before > CHANGE_THRESHOLD) {
+                    changed++;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static void notifyRatesChanged(Context context, int changed, String base) {
+        Intent intent = new Intent(context, MainActivity.class);
+        PendingIntent pendingIntent = PendingIntent.getActivity(
+                context, 0, intent, PendingIntent.FLAG_IMMUTABLE
+        );
+
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.drawable.baseline_sync_24)
+                .setContentTitle("Currency Rates Updated")
+                .setContentText(changed + " rates against " + base + " moved by more than 0.5%")
+                .setPriority(NotificationCompat.PRIORITY_DEFAULT)
+                .setAutoCancel(true)
+                .setContentIntent(pendingIntent);
+
+        context.getSystemService(NotificationManager.class).notify(NOTIFICATION_ID, builder.build());
+    }
+}
@@ -0,0 +1,109 @@
+package com.izpit.currencyconverter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming parsers for Frankfurter payloads. They read tokens straight off the
+ * response body, so neither the raw JSON string nor a JSONObject tree is ever built.
+ * {@link JsonStreamReader} keeps them free of framework classes, so they run on
+ * the JVM as well as on the device.
+ */
+final class RatesParser {
+
+    private RatesParser() {}
+
+    /** Reads a /currencies payload ({@code {"AUD":"Australian Dollar",...}}) into parallel lists. */
+    static void parseCurrencies(Reader source, List<String> codes, List<String> names) throws IOException {
+        try (JsonStreamReader reader = new JsonStreamReader(source)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                codes.add(reader.nextName());
+                names.add(reader.nextString());
+            }
+            reader.endObject();
+            reader.endDocument();
+        }
+    }
+
+    /** Reads a /latest payload into a snapshot indexed by {@link CurrencyRegistry} id. */
+    static RateSnapshot parseLatest(Reader source) throws IOException {
+        CurrencyRegistry registry = CurrencyRegistry.getInstance();
+        String base = null;
+        int[] ids = new int[64];
+        double[] values = new double[64];
+        int count = 0;
+
+        try (JsonStreamReader reader = new JsonStreamReader(source)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("base")) {
+                    base = reader.nextString();
+                } else if (name.equals("rates") && reader.peek() == JsonStreamReader.Token.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (count == ids.length) {
+                            ids = Arrays.copyOf(ids, count * 2);
+                            values = Arrays.copyOf(values, count * 2);
+                        }
+                        String code = reader.nextName();
+                        double rate = reader.nextDouble();
+                        if (!(rate > 0) || Double.isInfinite(rate)) {
+                            throw new IOException("Invalid rate " + rate + " for " + code);
+                        }
+                        ids[count] = registry.intern(code);
+                        values[count] = rate;
+                        count++;
+                    }
+                    reader.endObject();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            reader.endDocument();
+        }
+
+        if (base == null) {
+            throw new IOException("Rates payload has no base currency");
+        }
+        return RateSnapshot.of(registry.intern(base), ids, values, count, System.currentTimeMillis());
+    }
+
+    /**
+     * Reads a /{start}..{end}?from=&to= payload, keeping only the rate for {@code toCode}
+     * on each day. Frankfurter returns days in ascending order.
+     */
+    static TimeSeries parseTimeSeries(Reader source, String toCode) throws IOException {
+        TimeSeries series = new TimeSeries(256);
+        try (JsonStreamReader reader = new JsonStreamReader(source)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals("rates") || reader.peek() != JsonStreamReader.Token.BEGIN_OBJECT) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    int epochDay = TimeSeries.parseEpochDay(reader.nextName());
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (reader.nextName().equals(toCode)) {
+                            series.add(epochDay, reader.nextDouble());
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+                reader.endObject();
+            }
+            reader.endObject();
+            reader.endDocument();
+        }
+        return series;
+    }
+}
@@ -0,0 +1,114 @@
+package com.izpit.currencyconverter;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+
+/**
+ * Historical rates for one currency pair, stored column-wise: one primitive
+ * array of epoch days and one of rates, both sorted by day.
+ */
+final class TimeSeries {
+    private int[] epochDays;
+    private double[] rates;
+    private int size;
+
+    TimeSeries(int capacity) {
+        epochDays = new int[Math.max(capacity, 8)];
+        rates = new double[epochDays.length];
+    }
+
+    TimeSeries(int[] epochDays, double[] rates, int size) {
+        this.epochDays = epochDays;
+        this.rates = rates;
+        this.size = size;
+    }
+
+    void add(int epochDay, double rate) {
+        if (size == epochDays.length) {
+            epochDays = Arrays.copyOf(epochDays, size * 2);
+            rates = Arrays.copyOf(rates, size * 2);
+        }
+        epochDays[size] = epochDay;
+        rates[size] = rate;
+        size++;
+    }
+
+    int size() { return size; }
+    int dayAt(int index) { return epochDays[index]; }
+    double rateAt(int index) { return rates[index]; }
+
+    double minRate() {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < size; i++) min = Math.min(min, rates[i]);
+        return min;
+    }
+
+    double maxRate() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) max = Math.max(max, rates[i]);
+        return max;
+    }
+
+    /** Parses an ISO {@code yyyy-MM-dd} date into days since 1970-01-01 without allocating. */
+    static int parseEpochDay(CharSequence date) {
+        int year = digits(date, 0, 4);
+        int month = digits(date, 5, 7);
+        int day = digits(date, 8, 10);
+        return epochDay(year, month, day);
+    }
+
+    // Days-from-civil for the proleptic Gregorian calendar.
+    static int epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Epoch day of the calendar date {@code timestamp} falls on in {@code zone},
+     * counting its offset at that instant so daylight saving is followed.
+     */
+    static int localEpochDay(long timestamp, TimeZone zone) {
+        return (int) Math.floorDiv(timestamp + zone.getOffset(timestamp), 86_400_000L);
+    }
+
+    /**
+     * The instant {@code epochDay} starts in {@code zone}, the inverse of
+     * {@link #localEpochDay}. Where a DST change skips midnight, the first instant
+     * of the day is returned instead.
+     */
+    static long localMidnight(int epochDay, TimeZone zone) {
+        long utcMidnight = epochDay * 86_400_000L;
+        long guess = utcMidnight - zone.getOffset(utcMidnight);
+        long midnight = utcMidnight - zone.getOffset(guess);
+        return localEpochDay(midnight, zone) < epochDay ? guess : midnight;
+    }
+
+    /** Months since January 1970 for an epoch day, i.e. {@code year * 12 + month - 1} relative to 1970. */
+    static int epochMonth(int epochDay) {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (year - 1970) * 12 + month - 1;
+    }
+
+    private static int digits(CharSequence text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Not an ISO date: " + text);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,117 @@
+package com.izpit.currencyconverter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+/**
+ * Per-call OkHttp listener that records DNS, connect, TLS, time to first byte,
+ * body and total time into {@link Metrics}, keyed by endpoint. Phases a call
+ * skips, such as DNS and connect on a pooled connection, are simply not recorded.
+ */
+final class TimingEventListener extends EventListener {
+    static final EventListener.Factory FACTORY = call -> new TimingEventListener(endpointOf(call));
+
+    private final String prefix;
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long requestStart;
+    private long bodyStart;
+
+    private TimingEventListener(String endpoint) {
+        prefix = "http." + endpoint + ".";
+    }
+
+    /** Collapses request paths to a few endpoint names so dated ranges share one histogram. */
+    static String endpointOf(Call call) {
+        return endpointOf(call.request().url());
+    }
+
+    static String endpointOf(HttpUrl url) {
+        String path = url.encodedPath();
+        if (path.endsWith("/latest")) return "latest";
+        if (path.endsWith("/currencies")) return "currencies";
+        if (path.contains("..")) return "timeseries";
+        return "other";
+    }
+
+    @Override
+    public void callStart(Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> addresses) {
+        Metrics.recordSince(prefix + "dns", dnsStart);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        Metrics.recordSince(prefix + "tls", secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+        Metrics.recordSince(prefix + "connect", connectStart);
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        requestStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        Metrics.recordSince(prefix + "ttfb", requestStart);
+    }
+
+    @Override
+    public void responseBodyStart(Call call) {
+        bodyStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        Metrics.recordSince(prefix + "body", bodyStart);
+    }
+
+    @Override
+    public void cacheHit(Call call, Response response) {
+        Metrics.recordSince(prefix + "cacheHit", callStart);
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        Metrics.recordSince(prefix + "total", callStart);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        Metrics.recordSince(prefix + "failed", callStart);
+    }
+}
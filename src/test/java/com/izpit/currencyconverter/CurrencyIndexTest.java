@@ -0,0 +1,55 @@
+package com.izpit.currencyconverter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CurrencyIndexTest {
+    private final CurrencyRegistry registry = CurrencyRegistry.getInstance();
+    private CurrencyIndex index;
+
+    @Before
+    public void setUp() {
+        // Interned before the catalog arrives, as the app does for the saved base, so ids are not in code order.
+        registry.intern("XUS");
+        registry.intern("XCH");
+        List<String> codes = Arrays.asList("XAU", "XCH", "XNZ", "XSE", "XUS");
+        List<String> names = Arrays.asList("Australian Dollar", "Swiss Franc", "New Zealand Dollar",
+                "Swedish Krona", "United States Dollar");
+        registry.loadCatalog(codes, names);
+        index = CurrencyIndex.forRegistry(registry);
+    }
+
+    @Test
+    public void allIdsAreOrderedByCode() {
+        assertEquals(Arrays.asList("XAU", "XCH", "XNZ", "XSE", "XUS"), codesOf(index.allIds()));
+    }
+
+    @Test
+    public void lookupIsOrderedByCodeWhateverTheIds() {
+        assertEquals(Arrays.asList("XAU", "XNZ", "XUS"), codesOf(index.lookup("dollar")));
+        assertEquals(Arrays.asList("XCH", "XSE"), codesOf(index.lookup("sw")));
+        assertEquals(Arrays.asList("XUS"), codesOf(index.lookup(" Xu")));
+        assertEquals(Arrays.asList("XAU", "XCH", "XNZ", "XSE", "XUS"), codesOf(index.lookup("x")));
+        assertEquals(Arrays.asList(), codesOf(index.lookup("yen")));
+    }
+
+    @Test
+    public void narrowingKeepsTheOrder() {
+        CurrencyIndex.Search search = new CurrencyIndex.Search();
+        assertEquals(Arrays.asList("XCH", "XSE", "XUS"), codesOf(search.update(index, "s")));
+        assertEquals(Arrays.asList("XCH", "XSE"), codesOf(search.update(index, "sw")));
+        assertEquals(Arrays.asList("XSE"), codesOf(search.update(index, "swe")));
+        assertArrayEquals(index.lookup("swe"), search.update(index, "swe"));
+    }
+
+    private List<String> codesOf(int[] ids) {
+        String[] codes = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) codes[i] = registry.codeOf(ids[i]);
+        return Arrays.asList(codes);
+    }
+}
@@ -0,0 +1,183 @@
+package com.izpit.currencyconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** {@link FetchPolicy} against a local server that injects errors and latency. */
+public class FetchPolicyTest {
+    private static final long OPEN_MILLIS = 200;
+
+    private final MockWebServer server = new MockWebServer();
+    private FetchPolicy policy;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server.start();
+        // A 1ms base backoff keeps retries fast; thresholds match the production policy.
+        policy = new FetchPolicy(FetchPolicy.MAX_ATTEMPTS, 1, FetchPolicy.FAILURE_THRESHOLD, OPEN_MILLIS);
+        client = new OkHttpClient.Builder()
+                .readTimeout(250, TimeUnit.MILLISECONDS)
+                .addInterceptor(policy)
+                .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void retriesTransientErrorsUntilOneSucceeds() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(429));
+        server.enqueue(new MockResponse().setBody("{}"));
+
+        try (Response response = get("/latest")) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(3, server.getRequestCount());
+        assertEquals(2, policy.getRetryCount());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker().getState());
+    }
+
+    @Test
+    public void returnsTheLastErrorAfterMaxAttempts() throws IOException {
+        for (int i = 0; i < FetchPolicy.MAX_ATTEMPTS; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+        try (Response response = get("/latest")) {
+            assertEquals(500, response.code());
+        }
+        assertEquals(FetchPolicy.MAX_ATTEMPTS, server.getRequestCount());
+    }
+
+    @Test
+    public void clientErrorsAreNotRetriedAndKeepTheCircuitClosed() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(404));
+        try (Response response = get("/latest")) {
+            assertEquals(404, response.code());
+        }
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, policy.getRetryCount());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker().getState());
+    }
+
+    @Test
+    public void postsAreNotRetried() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        Request request = new Request.Builder().url(server.url("/latest"))
+                .post(RequestBody.create("{}", MediaType.get("application/json"))).build();
+        try (Response response = client.newCall(request).execute()) {
+            assertEquals(503, response.code());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void retriesDroppedConnections() throws IOException {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+        server.enqueue(new MockResponse().setBody("{}"));
+        try (Response response = get("/latest")) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(1, policy.getRetryCount());
+    }
+
+    @Test
+    public void slowResponsesWithinTheTimeoutSucceed() throws IOException {
+        server.enqueue(new MockResponse().setBody("{}").setHeadersDelay(100, TimeUnit.MILLISECONDS));
+        try (Response response = get("/other")) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(0, policy.getRetryCount());
+    }
+
+    @Test
+    public void timeoutsAreRetriedThenReported() {
+        for (int i = 0; i < FetchPolicy.MAX_ATTEMPTS; i++) {
+            server.enqueue(new MockResponse().setBody("{}").setHeadersDelay(1, TimeUnit.SECONDS));
+        }
+        try {
+            get("/other").close();
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.toString(), e instanceof InterruptedIOException);
+        }
+        assertEquals(FetchPolicy.MAX_ATTEMPTS, server.getRequestCount());
+        assertEquals(FetchPolicy.MAX_ATTEMPTS - 1, policy.getRetryCount());
+    }
+
+    @Test
+    public void opensAfterRepeatedFailuresAndStopsCallingTheHost() throws IOException {
+        failCalls(FetchPolicy.FAILURE_THRESHOLD);
+        assertEquals(CircuitBreaker.State.OPEN, breaker().getState());
+        int requests = server.getRequestCount();
+
+        try {
+            get("/latest").close();
+            fail();
+        } catch (FetchPolicy.CircuitOpenException expected) {
+        }
+        assertEquals(requests, server.getRequestCount());
+        assertEquals(1, policy.getShortCircuitCount());
+    }
+
+    @Test
+    public void halfOpenProbeClosesTheCircuitOnSuccess() throws Exception {
+        failCalls(FetchPolicy.FAILURE_THRESHOLD);
+        Thread.sleep(OPEN_MILLIS + 50);
+
+        server.enqueue(new MockResponse().setBody("{}"));
+        try (Response response = get("/latest")) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker().getState());
+        assertEquals(1, breaker().getTimesOpened());
+    }
+
+    @Test
+    public void failedProbeReopensTheCircuit() throws Exception {
+        failCalls(FetchPolicy.FAILURE_THRESHOLD);
+        Thread.sleep(OPEN_MILLIS + 50);
+
+        failCalls(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker().getState());
+        assertEquals(2, breaker().getTimesOpened());
+    }
+
+    private void failCalls(int calls) throws IOException {
+        for (int i = 0; i < calls * FetchPolicy.MAX_ATTEMPTS; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+        for (int i = 0; i < calls; i++) {
+            try (Response response = get("/latest")) {
+                assertEquals(503, response.code());
+            }
+        }
+    }
+
+    private CircuitBreaker breaker() {
+        return policy.breakerFor(server.getHostName());
+    }
+
+    private Response get(String path) throws IOException {
+        return client.newCall(new Request.Builder().url(server.url(path)).build()).execute();
+    }
+}
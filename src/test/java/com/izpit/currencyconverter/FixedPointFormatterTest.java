@@ -0,0 +1,84 @@
+package com.izpit.currencyconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.Test;
+
+public class FixedPointFormatterTest {
+    private final FixedPointFormatter formatter = new FixedPointFormatter('.');
+
+    @Test
+    public void minorUnitsMatchBigDecimal() {
+        long[] values = {0, 1, -1, 9, 10, 99, 100, 101, -105, 123456789, Long.MAX_VALUE, Long.MIN_VALUE + 1};
+        for (int scale = 0; scale <= Money.MAX_SCALE; scale++) {
+            for (long value : values) {
+                formatter.reset();
+                assertEquals(BigDecimal.valueOf(value, scale).toPlainString(),
+                        formatter.appendMinorUnits(value, scale).toString());
+            }
+        }
+    }
+
+    @Test
+    public void doublesMatchStringFormat() {
+        Random random = new Random(10);
+        for (int i = 0; i < 10_000; i++) {
+            // Rates and amounts on a log scale, away from exact ties where %.Nf rounds the binary value.
+            double value = Math.pow(10, random.nextDouble() * 12 - 4) * (random.nextBoolean() ? 1 : -1);
+            for (int decimals = 0; decimals <= 4; decimals++) {
+                double scaled = Math.abs(value) * FixedPointFormatter.powerOfTen(decimals);
+                if (Math.abs(scaled - Math.floor(scaled) - 0.5) < 1e-6) {
+                    continue;
+                }
+                String expected = String.format(Locale.US, "%." + decimals + "f", value);
+                if (expected.matches("-0\\.?0*")) {
+                    expected = expected.substring(1);
+                }
+                formatter.reset();
+                assertEquals(value + " " + decimals, expected, formatter.appendDouble(value, decimals).toString());
+            }
+        }
+    }
+
+    @Test
+    public void usesTheGivenSeparator() {
+        FixedPointFormatter comma = new FixedPointFormatter(',');
+        comma.reset();
+        assertEquals("1234,50", comma.appendMinorUnits(123450, 2).toString());
+    }
+
+    @Test
+    public void formattingIntoTheBufferDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        // Warm up so the buffer has grown to its working size.
+        formatRows(1_000);
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        formatRows(100_000);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        // A String per row would be several megabytes; allow only measurement noise.
+        assertTrue(allocated + " bytes allocated", allocated < 16 * 1024);
+    }
+
+    /** What the history paging source and the rate list do per row, up to the final toString. */
+    private int formatRows(int rows) {
+        int length = 0;
+        for (int i = 0; i < rows; i++) {
+            formatter.reset();
+            formatter.appendMinorUnits(123_456 + i, 2);
+            formatter.append(' ').append("EUR").append(" → ");
+            formatter.appendMinorUnits(13_359_811 - i, 0);
+            formatter.append(' ').append("JPY");
+            length += formatter.appendDouble(1.082137 + i * 1e-6, 4).length();
+        }
+        return length;
+    }
+}
@@ -0,0 +1,140 @@
+package com.izpit.currencyconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** The client from {@link HttpClientProvider} against a local server, for its cache behaviour. */
+public class HttpCacheTest {
+    private static final String LATEST = "{\"amount\":1.0,\"base\":\"EUR\",\"rates\":{\"USD\":1.0821}}";
+    private static final String CURRENCIES = "{\"EUR\":\"Euro\",\"USD\":\"United States Dollar\"}";
+
+    private final MockWebServer server = new MockWebServer();
+    private File cacheDir;
+    private Cache cache;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server.start();
+        cacheDir = Files.createTempDirectory("http-cache").toFile();
+        cache = new Cache(cacheDir, 1024 * 1024);
+        client = HttpClientProvider.newClient(cache, new FetchPolicy());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+        cache.delete();
+        cacheDir.delete();
+    }
+
+    @Test
+    public void catalogIsServedFromTheCacheForADay() throws Exception {
+        server.enqueue(new MockResponse().setBody(CURRENCIES));
+
+        assertEquals(CURRENCIES, fetch("/currencies"));
+        assertEquals(CURRENCIES, fetch("/currencies"));
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(2, cache.requestCount());
+        assertEquals(1, cache.networkCount());
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    public void latestIsRevalidatedWithItsETag() throws Exception {
+        server.enqueue(new MockResponse().setBody(LATEST).setHeader("ETag", "\"v1\""));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+        long savedBefore = HttpClientProvider.getBytesSaved();
+
+        assertEquals(LATEST, fetch("/latest"));
+        assertEquals(LATEST, fetch("/latest"));
+
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+        assertEquals(1, cache.hitCount());
+        assertEquals(LATEST.length(), HttpClientProvider.getBytesSaved() - savedBefore);
+    }
+
+    @Test
+    public void latestIsRevalidatedWithLastModified() throws Exception {
+        String lastModified = "Fri, 14 Jun 2024 14:00:00 GMT";
+        server.enqueue(new MockResponse().setBody(LATEST).setHeader("Last-Modified", lastModified));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        fetch("/latest");
+        assertEquals(LATEST, fetch("/latest"));
+
+        server.takeRequest();
+        RecordedRequest revalidation = server.takeRequest();
+        assertEquals(lastModified, revalidation.getHeader("If-Modified-Since"));
+    }
+
+    @Test
+    public void changedRatesReplaceTheCachedCopy() throws Exception {
+        String updated = LATEST.replace("1.0821", "1.0833");
+        server.enqueue(new MockResponse().setBody(LATEST).setHeader("ETag", "\"v1\""));
+        server.enqueue(new MockResponse().setBody(updated).setHeader("ETag", "\"v2\""));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        fetch("/latest");
+        assertEquals(updated, fetch("/latest"));
+        assertEquals(updated, fetch("/latest"));
+
+        server.takeRequest();
+        server.takeRequest();
+        assertEquals("\"v2\"", server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void serverCacheHeadersWin() throws Exception {
+        server.enqueue(new MockResponse().setBody(CURRENCIES).setHeader("Cache-Control", "no-store"));
+        server.enqueue(new MockResponse().setBody(CURRENCIES).setHeader("Cache-Control", "no-store"));
+
+        fetch("/currencies");
+        fetch("/currencies");
+
+        assertEquals(2, server.getRequestCount());
+        assertEquals(0, cache.hitCount());
+    }
+
+    @Test
+    public void errorsAreNotCached() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404));
+        server.enqueue(new MockResponse().setBody(CURRENCIES));
+
+        try (Response response = call("/currencies")) {
+            assertEquals(404, response.code());
+        }
+        try (Response response = call("/currencies")) {
+            assertEquals(200, response.code());
+            assertNotNull(response.networkResponse());
+        }
+    }
+
+    private String fetch(String path) throws IOException {
+        try (Response response = call(path)) {
+            assertEquals(200, response.code());
+            return response.body().string();
+        }
+    }
+
+    private Response call(String path) throws IOException {
+        return client.newCall(new Request.Builder().url(server.url(path)).build()).execute();
+    }
+}
@@ -0,0 +1,254 @@
+package com.izpit.currencyconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Replays {@link DatabaseSchema}'s migrations on SQLite, starting from the
+ * version 1 table Room created for the original ConversionHistory entity.
+ */
+public class MigrationTest {
+    private static final String VERSION_1 = "CREATE TABLE IF NOT EXISTS `conversion_history` ("
+            + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `fromCurrency` TEXT, `toCurrency` TEXT, "
+            + "`amount` REAL NOT NULL, `result` REAL NOT NULL, `timestamp` INTEGER NOT NULL)";
+
+    // Near midnight and month end in the test zone (Pacific/Auckland, see build.gradle).
+    private static final long EVENING = Instant.parse("2024-06-14T11:30:00Z").toEpochMilli();
+    private static final long AFTER_MIDNIGHT = Instant.parse("2024-06-14T12:30:00Z").toEpochMilli();
+    private static final long NEXT_MONTH = Instant.parse("2024-06-30T13:00:00Z").toEpochMilli();
+
+    private Connection db;
+
+    @Before
+    public void setUp() throws SQLException {
+        db = DriverManager.getConnection("jdbc:sqlite::memory:");
+        execute(VERSION_1);
+        insertVersion1("EUR", "USD", 100.0, 108.21, EVENING);
+        insertVersion1("EUR", "USD", 12.34, 13.35, AFTER_MIDNIGHT);
+        insertVersion1("USD", "JPY", 5.5, 889.99, NEXT_MONTH);
+        insertVersion1(null, "GBP", 0.125, 0.105, EVENING);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        db.close();
+    }
+
+    @Test
+    public void migrate1To2AddsTheRateTables() throws SQLException {
+        migrate(DatabaseSchema.MIGRATE_1_2);
+        assertColumns("rate_snapshots", "base", "fetchedAt", "codes", "rates");
+        assertColumns("currencies", "code", "name", "position", "fetchedAt");
+        assertEquals(4, count("SELECT COUNT(*) FROM conversion_history"));
+    }
+
+    @Test
+    public void migrate2To3IndexesTimestamps() throws SQLException {
+        migrate(DatabaseSchema.MIGRATE_1_2, DatabaseSchema.MIGRATE_2_3);
+        assertTrue(indexes("conversion_history").contains("index_conversion_history_timestamp"));
+    }
+
+    @Test
+    public void migrate3To4MovesHistoryOntoIdsAndMinorUnits() throws SQLException {
+        migrate(DatabaseSchema.MIGRATE_1_2, DatabaseSchema.MIGRATE_2_3, DatabaseSchema.MIGRATE_3_4);
+
+        assertColumns("conversion_history", "id", "fromCurrencyId", "toCurrencyId",
+                "amountMinor", "amountScale", "resultMinor", "resultScale", "timestamp");
+        assertColumns("currency_codes", "id", "code");
+        assertEquals(Arrays.asList("index_conversion_history_fromCurrencyId_toCurrencyId_timestamp",
+                "index_conversion_history_timestamp"), indexes("conversion_history"));
+        assertEquals(Arrays.asList("index_currency_codes_code"), indexes("currency_codes"));
+        assertEquals(5, count("SELECT COUNT(*) FROM currency_codes"));
+
+        List<String> rows = new ArrayList<>();
+        try (Statement statement = db.createStatement();
+             ResultSet result = statement.executeQuery("SELECT h.id, f.code, t.code, h.amountMinor, "
+                     + "h.amountScale, h.resultMinor, h.resultScale, h.timestamp FROM conversion_history h "
+                     + "JOIN currency_codes f ON f.id = h.fromCurrencyId "
+                     + "JOIN currency_codes t ON t.id = h.toCurrencyId ORDER BY h.id")) {
+            while (result.next()) {
+                rows.add(result.getInt(1) + " " + result.getString(2) + "->" + result.getString(3) + " "
+                        + result.getLong(4) + "@" + result.getInt(5) + " "
+                        + result.getLong(6) + "@" + result.getInt(7) + " " + result.getLong(8));
+            }
+        }
+        assertEquals(Arrays.asList(
+                "1 EUR->USD 10000@2 10821@2 " + EVENING,
+                "2 EUR->USD 1234@2 1335@2 " + AFTER_MIDNIGHT,
+                "3 USD->JPY 550@2 88999@2 " + NEXT_MONTH,
+                "4 ->GBP 13@2 11@2 " + EVENING), rows);
+    }
+
+    @Test
+    public void migrate4To5BuildsTotalsInLocalDays() throws SQLException {
+        migrateToLatest();
+        assertColumns("conversion_totals", "period", "bucket", "fromCurrencyId", "toCurrencyId",
+                "conversionCount", "amountTotal");
+
+        TimeZone zone = TimeZone.getDefault();
+        assertNotEquals("the test zone must not be UTC", 0, zone.getOffset(EVENING));
+        // The same UTC day, but either side of local midnight.
+        assertNotEquals(TimeSeries.localEpochDay(EVENING, zone), TimeSeries.localEpochDay(AFTER_MIDNIGHT, zone));
+
+        assertTotals(expectedTotals(zone), totals());
+    }
+
+    @Test
+    public void rebuildMatchesTheTotalsOfIncrementalInserts() throws SQLException {
+        migrateToLatest();
+        insertVersion5("EUR", "USD", 250_000, 3, Instant.parse("2024-07-31T12:59:59Z").toEpochMilli());
+        insertVersion5("USD", "JPY", 7, 0, Instant.parse("2024-07-31T13:00:00Z").toEpochMilli());
+
+        execute("DELETE FROM conversion_totals");
+        execute(DatabaseSchema.REBUILD_DAY_TOTALS);
+        execute(DatabaseSchema.REBUILD_MONTH_TOTALS);
+        execute(DatabaseSchema.REBUILD_ALL_TIME_TOTALS);
+
+        assertTotals(expectedTotals(TimeZone.getDefault()), totals());
+    }
+
+    private void migrateToLatest() throws SQLException {
+        migrate(DatabaseSchema.MIGRATE_1_2, DatabaseSchema.MIGRATE_2_3,
+                DatabaseSchema.MIGRATE_3_4, DatabaseSchema.MIGRATE_4_5);
+    }
+
+    /** Totals computed in Java from conversion_history, the way the DAO folds new rows in. */
+    private Map<String, long[]> expectedTotals(TimeZone zone) throws SQLException {
+        Map<String, long[]> totals = new HashMap<>();
+        try (Statement statement = db.createStatement();
+             ResultSet result = statement.executeQuery("SELECT fromCurrencyId, toCurrencyId, "
+                     + "amountMinor, amountScale, timestamp FROM conversion_history")) {
+            while (result.next()) {
+                String pair = result.getInt(1) + ":" + result.getInt(2);
+                long amount = result.getLong(3) * FixedPointFormatter.powerOfTen(4 - result.getInt(4));
+                int day = TimeSeries.localEpochDay(result.getLong(5), zone);
+                add(totals, "0:" + day + ":" + pair, amount);
+                add(totals, "1:" + TimeSeries.epochMonth(day) + ":" + pair, amount);
+                add(totals, "2:0:" + pair, amount);
+            }
+        }
+        return totals;
+    }
+
+    private static void add(Map<String, long[]> totals, String key, long amount) {
+        long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+        total[0]++;
+        total[1] += amount;
+    }
+
+    private Map<String, long[]> totals() throws SQLException {
+        Map<String, long[]> totals = new HashMap<>();
+        try (Statement statement = db.createStatement();
+             ResultSet result = statement.executeQuery("SELECT period, bucket, fromCurrencyId, "
+                     + "toCurrencyId, conversionCount, amountTotal FROM conversion_totals")) {
+            while (result.next()) {
+                totals.put(result.getInt(1) + ":" + result.getInt(2) + ":" + result.getInt(3) + ":"
+                        + result.getInt(4), new long[] {result.getLong(5), result.getLong(6)});
+            }
+        }
+        return totals;
+    }
+
+    private static void assertTotals(Map<String, long[]> expected, Map<String, long[]> actual) {
+        Map<String, String> expectedText = new LinkedHashMap<>();
+        Map<String, String> actualText = new LinkedHashMap<>();
+        expected.forEach((key, value) -> expectedText.put(key, Arrays.toString(value)));
+        actual.forEach((key, value) -> actualText.put(key, Arrays.toString(value)));
+        assertEquals(expectedText, actualText);
+    }
+
+    private void migrate(String[]... steps) throws SQLException {
+        for (String[] step : steps) {
+            db.setAutoCommit(false);
+            for (String sql : step) {
+                execute(sql);
+            }
+            db.commit();
+            db.setAutoCommit(true);
+        }
+    }
+
+    private void insertVersion1(String from, String to, double amount, double result, long timestamp)
+            throws SQLException {
+        try (PreparedStatement insert = db.prepareStatement("INSERT INTO conversion_history "
+                + "(fromCurrency, toCurrency, amount, result, timestamp) VALUES (?, ?, ?, ?, ?)")) {
+            insert.setString(1, from);
+            insert.setString(2, to);
+            insert.setDouble(3, amount);
+            insert.setDouble(4, result);
+            insert.setLong(5, timestamp);
+            insert.executeUpdate();
+        }
+    }
+
+    private void insertVersion5(String from, String to, long amountMinor, int amountScale, long timestamp)
+            throws SQLException {
+        execute("INSERT OR IGNORE INTO currency_codes (code) VALUES ('" + from + "'), ('" + to + "')");
+        try (PreparedStatement insert = db.prepareStatement("INSERT INTO conversion_history "
+                + "(fromCurrencyId, toCurrencyId, amountMinor, amountScale, resultMinor, resultScale, timestamp) "
+                + "SELECT f.id, t.id, ?, ?, 0, 2, ? FROM currency_codes f, currency_codes t "
+                + "WHERE f.code = ? AND t.code = ?")) {
+            insert.setLong(1, amountMinor);
+            insert.setInt(2, amountScale);
+            insert.setLong(3, timestamp);
+            insert.setString(4, from);
+            insert.setString(5, to);
+            insert.executeUpdate();
+        }
+    }
+
+    private void assertColumns(String table, String... columns) throws SQLException {
+        List<String> actual = new ArrayList<>();
+        try (Statement statement = db.createStatement();
+             ResultSet result = statement.executeQuery("PRAGMA table_info(`" + table + "`)")) {
+            while (result.next()) {
+                actual.add(result.getString("name"));
+            }
+        }
+        assertEquals(Arrays.asList(columns), actual);
+    }
+
+    private List<String> indexes(String table) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (Statement statement = db.createStatement();
+             ResultSet result = statement.executeQuery("SELECT name FROM sqlite_master WHERE type = 'index' "
+                     + "AND tbl_name = '" + table + "' AND sql IS NOT NULL ORDER BY name")) {
+            while (result.next()) {
+                names.add(result.getString(1));
+            }
+        }
+        return names;
+    }
+
+    private long count(String query) throws SQLException {
+        try (Statement statement = db.createStatement(); ResultSet result = statement.executeQuery(query)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = db.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.izpit.currencyconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** {@link Money} against BigDecimal, for every currency in the recorded catalog. */
+public class MoneyTest {
+    private static final RoundingMode[] MODES = {
+            RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+            RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN
+    };
+
+    private static final List<String> codes = new ArrayList<>();
+    private static RateSnapshot snapshot;
+
+    @BeforeClass
+    public static void loadCatalog() throws IOException {
+        List<String> names = new ArrayList<>();
+        try (Reader reader = fixture("currencies.json")) {
+            RatesParser.parseCurrencies(reader, codes, names);
+        }
+        // KWD and BHD are not quoted by Frankfurter but are the three-digit cases.
+        codes.add("KWD");
+        codes.add("BHD");
+        for (String code : codes) {
+            CurrencyRegistry.getInstance().intern(code);
+        }
+        try (Reader reader = fixture("latest.json")) {
+            snapshot = RatesParser.parseLatest(reader);
+        }
+    }
+
+    @Test
+    public void scales() {
+        assertEquals(0, Money.scaleOf("JPY"));
+        assertEquals(0, Money.scaleOf("ISK"));
+        assertEquals(0, Money.scaleOf("KRW"));
+        assertEquals(2, Money.scaleOf("EUR"));
+        assertEquals(3, Money.scaleOf("KWD"));
+        assertEquals(3, Money.scaleOf("BHD"));
+        assertEquals(Money.DEFAULT_SCALE, Money.scaleOf("XYZ"));
+        for (String code : codes) {
+            int expected = java.util.Currency.getInstance(code).getDefaultFractionDigits();
+            assertEquals(code, expected, Money.scaleOf(code));
+        }
+    }
+
+    @Test
+    public void parseMatchesBigDecimal() {
+        String[] typed = {"0", "1", "-1", "0.5", "1.005", "2.675", "-2.675", "1234567.891",
+                "0,125", "99.99999", ".5", "5.", "+7.25", "0.0000001"};
+        for (String code : codes) {
+            int scale = Money.scaleOf(code);
+            for (String text : typed) {
+                for (RoundingMode mode : MODES) {
+                    BigDecimal expected = new BigDecimal(normalize(text)).setScale(scale, mode);
+                    assertEquals(code + " " + text + " " + mode,
+                            expected.unscaledValue().longValueExact(), Money.parse(text, scale, mode));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parseRejectsGarbageAndOverflow() {
+        for (String text : new String[] {"", "-", ".", "1.2.3", "12a", "1e5"}) {
+            try {
+                Money.parse(text, 2, RoundingMode.HALF_UP);
+                fail("Accepted " + text);
+            } catch (NumberFormatException expected) {
+            }
+        }
+        try {
+            Money.parse("99999999999999999999", 2, RoundingMode.HALF_UP);
+            fail();
+        } catch (ArithmeticException expected) {
+        }
+    }
+
+    @Test
+    public void rescaleMatchesBigDecimal() {
+        long[] amounts = {0, 1, -1, 5, -5, 15, 25, -25, 49, 50, 51, 999, 1005, -1005, 123456789};
+        for (int from = 0; from <= Money.MAX_SCALE; from++) {
+            for (int to = 0; to <= Money.MAX_SCALE; to++) {
+                for (long amount : amounts) {
+                    for (RoundingMode mode : MODES) {
+                        long expected = BigDecimal.valueOf(amount, from).setScale(to, mode)
+                                .unscaledValue().longValueExact();
+                        assertEquals(amount + " " + from + "->" + to + " " + mode,
+                                expected, Money.rescale(amount, from, to, mode));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void convertMatchesBigDecimalForEveryPair() {
+        CurrencyRegistry registry = CurrencyRegistry.getInstance();
+        Random random = new Random(4217);
+        long[] amounts = new long[40];
+        long[] typed = {0, 1, 5, 50, 99, 100, 150, 1000, 1005, 12345, 100000, 123456789};
+        System.arraycopy(typed, 0, amounts, 0, typed.length);
+        for (int i = typed.length; i < amounts.length; i++) {
+            // Spread over every magnitude up to 2^55, so products cross the 2^49 fast-path limit.
+            amounts[i] = random.nextLong() >>> (8 + random.nextInt(55));
+        }
+        for (String from : codes) {
+            int fromId = registry.idOf(from);
+            if (!snapshot.hasRate(fromId)) {
+                continue;
+            }
+            for (String to : codes) {
+                int toId = registry.idOf(to);
+                if (!snapshot.hasRate(toId)) {
+                    continue;
+                }
+                double rate = snapshot.crossRate(fromId, toId);
+                for (long amount : amounts) {
+                    for (RoundingMode mode : MODES) {
+                        assertConverts(amount, Money.scaleOf(from), rate, Money.scaleOf(to), mode);
+                        assertConverts(-amount, Money.scaleOf(from), rate, Money.scaleOf(to), mode);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void convertRoundsExactHalvesByMode() {
+        // 1.00 EUR at 1.005 is exactly 1.005, but 1.005 is not exact as a double.
+        assertEquals(101, Money.convert(100, 2, 1.005, 2, RoundingMode.HALF_UP));
+        assertEquals(100, Money.convert(100, 2, 1.005, 2, RoundingMode.HALF_DOWN));
+        assertEquals(100, Money.convert(100, 2, 1.005, 2, RoundingMode.HALF_EVEN));
+        assertEquals(-101, Money.convert(-100, 2, 1.005, 2, RoundingMode.HALF_UP));
+        assertEquals(3, Money.convert(250, 2, 1.0, 0, RoundingMode.HALF_UP));
+        assertEquals(2, Money.convert(250, 2, 1.0, 0, RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    public void convertKeepsEveryUnitOfLargeAmounts() {
+        // Above 2^49 a double no longer holds the fraction needed to round correctly.
+        long minor = (1L << 51) + 3;
+        double rate = 1.1;
+        for (RoundingMode mode : MODES) {
+            assertConverts(minor, 2, rate, 2, mode);
+            assertConverts(minor, 2, rate, 3, mode);
+        }
+    }
+
+    @Test
+    public void convertRejectsResultsBeyondALong() {
+        try {
+            Money.convert(Long.MAX_VALUE / 2, 0, 161.87, 0, RoundingMode.HALF_UP);
+            fail();
+        } catch (ArithmeticException expected) {
+        }
+        try {
+            Money.convert(Long.MAX_VALUE / 2, 2, 3.0, 3, RoundingMode.HALF_UP);
+            fail();
+        } catch (ArithmeticException expected) {
+        }
+    }
+
+    private static void assertConverts(long minor, int fromScale, double rate, int toScale, RoundingMode mode) {
+        String message = minor + "@" + fromScale + " x " + rate + " -> " + toScale + " " + mode;
+        long expected;
+        try {
+            expected = BigDecimal.valueOf(minor, fromScale).multiply(BigDecimal.valueOf(rate))
+                    .setScale(toScale, mode).unscaledValue().longValueExact();
+        } catch (ArithmeticException overflow) {
+            try {
+                Money.convert(minor, fromScale, rate, toScale, mode);
+                fail(message + " did not overflow");
+            } catch (ArithmeticException expected2) {
+            }
+            return;
+        }
+        assertEquals(message, expected, Money.convert(minor, fromScale, rate, toScale, mode));
+    }
+
+    private static String normalize(String text) {
+        String decimal = text.replace(',', '.');
+        return decimal.endsWith(".") ? decimal + "0" : decimal;
+    }
+
+    private static Reader fixture(String name) {
+        return new InputStreamReader(MoneyTest.class.getResourceAsStream("/fixtures/" + name),
+                StandardCharsets.UTF_8);
+    }
+}
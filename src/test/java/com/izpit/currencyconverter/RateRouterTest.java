@@ -0,0 +1,270 @@
+package com.izpit.currencyconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** {@link RateRouter} racing fake providers that the test answers by hand. */
+public class RateRouterTest {
+    private static final long WAIT_SECONDS = 5;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final CurrencyRegistry registry = CurrencyRegistry.getInstance();
+    private final List<String> started = Collections.synchronizedList(new ArrayList<>());
+    private int eur;
+    private int usd;
+
+    @Before
+    public void setUp() {
+        // Stats keep their histograms in Metrics, which outlive a single test.
+        Metrics.reset();
+        eur = registry.intern("EUR");
+        usd = registry.intern("USD");
+    }
+
+    @Test
+    public void firstValidResponseWinsAndTheSlowerCallIsCancelled() throws Exception {
+        FakeProvider a = new FakeProvider("a");
+        FakeProvider b = new FakeProvider("b");
+        FakeProvider c = new FakeProvider("c");
+        RateRouter router = new RateRouter(Arrays.asList(a, b, c));
+        Outcome outcome = new Outcome();
+
+        router.fetchLatest(eur, outcome);
+        assertEquals(Arrays.asList("a", "b"), started);
+
+        RateSnapshot snapshot = snapshot(eur);
+        b.respond(snapshot);
+        assertSame(snapshot, outcome.awaitResult());
+        assertTrue(a.isCancelled());
+        assertFalse(b.isCancelled());
+        assertEquals(Arrays.asList("a", "b"), started);
+
+        // The loser's late answer is ignored.
+        a.respond(snapshot(eur));
+        assertEquals(1, outcome.calls.get());
+        assertEquals(1, router.statsFor(b).wins.get());
+        assertEquals(1, router.statsFor(a).cancelled.get());
+        assertEquals(0, router.statsFor(a).failures.get());
+    }
+
+    @Test
+    public void wrongBaseIsAFailureAndTheNextProviderIsTried() throws Exception {
+        FakeProvider a = new FakeProvider("a");
+        FakeProvider b = new FakeProvider("b");
+        FakeProvider c = new FakeProvider("c");
+        RateRouter router = new RateRouter(Arrays.asList(a, b, c));
+        Outcome outcome = new Outcome();
+
+        router.fetchLatest(usd, outcome);
+        a.respond(snapshot(eur));
+        assertEquals(Arrays.asList("a", "b", "c"), started);
+
+        RateSnapshot snapshot = snapshot(usd);
+        c.respond(snapshot);
+        assertSame(snapshot, outcome.awaitResult());
+        assertTrue(b.isCancelled());
+        assertEquals(1, router.statsFor(a).failures.get());
+        assertEquals(1, router.statsFor(c).wins.get());
+    }
+
+    @Test
+    public void providerOverItsBudgetTimesOutAndTheNextOneWins() throws Exception {
+        FakeProvider slow = new FakeProvider("slow");
+        FakeProvider b = new FakeProvider("b");
+        FakeProvider c = new FakeProvider("c");
+        RateRouter router = new RateRouter(Arrays.asList(slow, b, c));
+        // Five quick answers give slow the minimum budget instead of the default.
+        for (int i = 0; i < 5; i++) {
+            router.statsFor(slow).latency.record(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        assertEquals(RateRouter.MIN_BUDGET_MS, router.statsFor(slow).budgetMillis());
+        Outcome outcome = new Outcome();
+
+        long start = System.nanoTime();
+        router.fetchLatest(eur, outcome);
+        assertEquals(Arrays.asList("slow", "b"), started);
+
+        c.awaitStarted();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= RateRouter.MIN_BUDGET_MS);
+        // The timed-out call is cancelled once the router has let go of its lock.
+        slow.awaitCancelled();
+        assertEquals(1, router.statsFor(slow).timeouts.get());
+
+        RateSnapshot snapshot = snapshot(eur);
+        c.respond(snapshot);
+        assertSame(snapshot, outcome.awaitResult());
+        assertTrue(b.isCancelled());
+    }
+
+    @Test
+    public void allProvidersFailingReportsTheLastError() throws Exception {
+        FakeProvider a = new FakeProvider("a");
+        FakeProvider b = new FakeProvider("b");
+        FakeProvider c = new FakeProvider("c");
+        RateRouter router = new RateRouter(Arrays.asList(a, b, c));
+        Outcome outcome = new Outcome();
+
+        router.fetchLatest(eur, outcome);
+        a.fail(new IOException("a down"));
+        b.fail(new IOException("b down"));
+        assertNull(outcome.error);
+        IOException last = new IOException("c down");
+        c.fail(last);
+
+        assertSame(last, outcome.awaitError());
+        assertEquals(1, outcome.calls.get());
+        for (FakeProvider provider : Arrays.asList(a, b, c)) {
+            assertEquals(1, router.statsFor(provider).failures.get());
+        }
+    }
+
+    @Test
+    public void statsReorderProvidersForTheNextRequest() throws Exception {
+        FakeProvider a = new FakeProvider("a");
+        FakeProvider b = new FakeProvider("b");
+        FakeProvider c = new FakeProvider("c");
+        RateRouter router = new RateRouter(Arrays.asList(a, b, c));
+        assertEquals(Arrays.asList(a, b, c), router.rank());
+
+        Outcome first = new Outcome();
+        router.fetchLatest(eur, first);
+        a.fail(new IOException("a down"));
+        c.respond(snapshot(eur));
+        first.awaitResult();
+
+        // c answered, b lost a race it was never scored on, a failed.
+        assertEquals(Arrays.asList(c, b, a), router.rank());
+        started.clear();
+        router.fetchLatest(eur, new Outcome());
+        assertEquals(Arrays.asList("c", "b"), started);
+    }
+
+    @Test
+    public void fileProviderStandsInForTheNetwork() throws Exception {
+        File file = folder.newFile(FileRateProvider.FILE_NAME);
+        try (InputStream fixture = getClass().getResourceAsStream("/fixtures/latest.json")) {
+            Files.copy(fixture, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        FakeProvider silent = new FakeProvider("silent");
+        RateRouter router = new RateRouter(Arrays.asList(silent, new FileRateProvider(file, 0)));
+        Outcome outcome = new Outcome();
+
+        router.fetchLatest(usd, outcome);
+        RateSnapshot snapshot = outcome.awaitResult();
+        assertEquals(usd, snapshot.getBaseId());
+        assertEquals(1.0 / 1.0821, snapshot.rateOf(eur), 1e-12);
+        assertTrue(silent.isCancelled());
+    }
+
+    private RateSnapshot snapshot(int baseId) {
+        return RateSnapshot.of(baseId, new int[0], new double[0], 0, System.currentTimeMillis());
+    }
+
+    /** A provider whose single outstanding call is answered by the test. */
+    private final class FakeProvider implements RateProvider {
+        private final String name;
+        private final CountDownLatch startedLatch = new CountDownLatch(1);
+        private final CountDownLatch cancelledLatch = new CountDownLatch(1);
+        private volatile Listener<RateSnapshot> listener;
+        private volatile boolean cancelled;
+
+        FakeProvider(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Cancellable fetchLatest(int baseId, Listener<RateSnapshot> listener) {
+            this.listener = listener;
+            cancelled = false;
+            started.add(name);
+            startedLatch.countDown();
+            return () -> {
+                cancelled = true;
+                cancelledLatch.countDown();
+            };
+        }
+
+        void respond(RateSnapshot snapshot) {
+            listener.onResult(snapshot);
+        }
+
+        void fail(IOException e) {
+            listener.onError(e);
+        }
+
+        void awaitStarted() throws InterruptedException {
+            assertTrue(name + " never started", startedLatch.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        }
+
+        void awaitCancelled() throws InterruptedException {
+            assertTrue(name + " never cancelled", cancelledLatch.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /** Records what the router reported, and how often. */
+    private static final class Outcome implements RateProvider.Listener<RateSnapshot> {
+        private final LinkedBlockingQueue<Object> reports = new LinkedBlockingQueue<>();
+        final AtomicInteger calls = new AtomicInteger();
+        volatile IOException error;
+
+        @Override
+        public void onResult(RateSnapshot result) {
+            calls.incrementAndGet();
+            reports.add(result);
+        }
+
+        @Override
+        public void onError(IOException e) {
+            calls.incrementAndGet();
+            error = e;
+            reports.add(e);
+        }
+
+        RateSnapshot awaitResult() throws InterruptedException {
+            Object report = reports.poll(WAIT_SECONDS, TimeUnit.SECONDS);
+            assertNotNull("no result", report);
+            assertTrue("expected a result, got " + report, report instanceof RateSnapshot);
+            return (RateSnapshot) report;
+        }
+
+        IOException awaitError() throws InterruptedException {
+            Object report = reports.poll(WAIT_SECONDS, TimeUnit.SECONDS);
+            assertNotNull("no error", report);
+            assertTrue("expected an error, got " + report, report instanceof IOException);
+            return (IOException) report;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.izpit.currencyconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/** {@link RatesParser} against payloads recorded from the Frankfurter API. */
+public class RatesFixtureTest {
+    private final CurrencyRegistry registry = CurrencyRegistry.getInstance();
+
+    @Test
+    public void currencies() throws IOException {
+        List<String> codes = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        try (Reader reader = fixture("currencies.json")) {
+            RatesParser.parseCurrencies(reader, codes, names);
+        }
+        assertEquals(31, codes.size());
+        assertEquals(codes.size(), names.size());
+        assertEquals("AUD", codes.get(0));
+        assertEquals("Australian Dollar", names.get(0));
+        assertEquals("Icelandic Króna", names.get(codes.indexOf("ISK")));
+        assertEquals("Polish Złoty", names.get(codes.indexOf("PLN")));
+        assertEquals("South African Rand", names.get(codes.size() - 1));
+    }
+
+    @Test
+    public void latest() throws IOException {
+        RateSnapshot snapshot;
+        try (Reader reader = fixture("latest.json")) {
+            snapshot = RatesParser.parseLatest(reader);
+        }
+        int eur = registry.idOf("EUR");
+        assertEquals(eur, snapshot.getBaseId());
+        assertEquals(1.0, snapshot.rateOf(eur), 0);
+        assertEquals(1.0821, snapshot.rateOf(registry.idOf("USD")), 0);
+        assertEquals(17612, snapshot.rateOf(registry.idOf("IDR")), 0);
+        assertEquals(0.84135, snapshot.rateOf(registry.idOf("GBP")), 0);
+
+        RateSnapshot usd = snapshot.rebase(registry.idOf("USD"));
+        assertEquals(161.87 / 1.0821, usd.rateOf(registry.idOf("JPY")), 1e-9);
+        assertFalse(snapshot.hasRate(registry.intern("XAU")));
+    }
+
+    @Test
+    public void timeSeries() throws IOException {
+        TimeSeries series;
+        try (Reader reader = fixture("timeseries.json")) {
+            series = RatesParser.parseTimeSeries(reader, "JPY");
+        }
+        assertEquals(9, series.size());
+        assertEquals(TimeSeries.epochDay(2024, 1, 2), series.dayAt(0));
+        assertEquals(155.52, series.rateAt(0), 0);
+        assertEquals(TimeSeries.epochDay(2024, 1, 12), series.dayAt(8));
+        assertEquals(158.53, series.rateAt(8), 0);
+        assertEquals(155.52, series.minRate(), 0);
+        assertEquals(159.54, series.maxRate(), 0);
+        for (int i = 1; i < series.size(); i++) {
+            assertTrue(series.dayAt(i) > series.dayAt(i - 1));
+        }
+    }
+
+    @Test
+    public void timeSeriesForAnUnquotedCurrencyIsEmpty() throws IOException {
+        try (Reader reader = fixture("timeseries.json")) {
+            assertEquals(0, RatesParser.parseTimeSeries(reader, "CHF").size());
+        }
+    }
+
+    private static Reader fixture(String name) {
+        return new InputStreamReader(RatesFixtureTest.class.getResourceAsStream("/fixtures/" + name),
+                StandardCharsets.UTF_8);
+    }
+}
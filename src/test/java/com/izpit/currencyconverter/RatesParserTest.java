@@ -0,0 +1,155 @@
+package com.izpit.currencyconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class RatesParserTest {
+    private final CurrencyRegistry registry = CurrencyRegistry.getInstance();
+
+    @Test
+    public void parsesCurrencies() throws IOException {
+        List<String> codes = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        RatesParser.parseCurrencies(new StringReader(
+                "{\"AUD\":\"Australian Dollar\",\"ISK\":\"Icelandic Kr\\u00f3na\",\"PLN\":\"Polish Złoty\"}"),
+                codes, names);
+        assertEquals(Arrays.asList("AUD", "ISK", "PLN"), codes);
+        assertEquals(Arrays.asList("Australian Dollar", "Icelandic Króna", "Polish Złoty"), names);
+    }
+
+    @Test
+    public void parsesLatest() throws IOException {
+        RateSnapshot snapshot = RatesParser.parseLatest(new StringReader(
+                "{\"amount\":1.0,\"base\":\"EUR\",\"date\":\"2024-06-14\","
+                        + "\"rates\":{\"USD\":1.0821,\"JPY\":161.87,\"ZAR\":1.97713e1}}"));
+        assertEquals(registry.idOf("EUR"), snapshot.getBaseId());
+        assertEquals(1.0, snapshot.rateOf(registry.idOf("EUR")), 0);
+        assertEquals(1.0821, snapshot.rateOf(registry.idOf("USD")), 0);
+        assertEquals(161.87, snapshot.rateOf(registry.idOf("JPY")), 0);
+        assertEquals(19.7713, snapshot.rateOf(registry.idOf("ZAR")), 0);
+    }
+
+    @Test
+    public void latestSkipsUnknownFieldsInAnyOrder() throws IOException {
+        RateSnapshot snapshot = RatesParser.parseLatest(new StringReader(
+                "{\"rates\":{\"USD\":1.25},\"meta\":{\"tags\":[1,true,null,{\"x\":\"y\"}]},\"base\":\"GBP\"}"));
+        assertEquals(registry.idOf("GBP"), snapshot.getBaseId());
+        assertEquals(1.25, snapshot.rateOf(registry.idOf("USD")), 0);
+    }
+
+    @Test
+    public void parsesTimeSeriesForOneCurrency() throws IOException {
+        TimeSeries series = RatesParser.parseTimeSeries(new StringReader(
+                "{\"amount\":1.0,\"base\":\"EUR\",\"start_date\":\"2024-01-02\",\"end_date\":\"2024-01-04\","
+                        + "\"rates\":{\"2024-01-02\":{\"GBP\":0.86,\"USD\":1.0956},"
+                        + "\"2024-01-03\":{\"USD\":1.0919},"
+                        + "\"2024-01-04\":{\"GBP\":0.8626}}}"), "USD");
+        assertEquals(2, series.size());
+        assertEquals(TimeSeries.epochDay(2024, 1, 2), series.dayAt(0));
+        assertEquals(1.0956, series.rateAt(0), 0);
+        assertEquals(TimeSeries.epochDay(2024, 1, 3), series.dayAt(1));
+        assertEquals(1.0919, series.rateAt(1), 0);
+    }
+
+    @Test
+    public void emptyTimeSeries() throws IOException {
+        assertEquals(0, RatesParser.parseTimeSeries(new StringReader("{\"rates\":{}}"), "USD").size());
+    }
+
+    @Test
+    public void parsesPayloadsLongerThanTheReadBuffer() throws IOException {
+        StringBuilder json = new StringBuilder("{\"base\":\"EUR\",\"rates\":{");
+        for (int i = 0; i < 500; i++) {
+            json.append(i == 0 ? "" : ",\n  ").append("\"X").append(i).append("\":").append(i + 0.5);
+        }
+        RateSnapshot snapshot = RatesParser.parseLatest(new StringReader(json.append("}}").toString()));
+        assertEquals(499.5, snapshot.rateOf(registry.idOf("X499")), 0);
+    }
+
+    @Test
+    public void rejectsMalformedCurrencies() {
+        assertMalformedCurrencies("");
+        assertMalformedCurrencies("[]");
+        assertMalformedCurrencies("{\"AUD\":\"Australian Dollar\"");
+        assertMalformedCurrencies("{\"AUD\":\"Australian Dollar\",}");
+        assertMalformedCurrencies("{\"AUD\" \"Australian Dollar\"}");
+        assertMalformedCurrencies("{AUD:\"Australian Dollar\"}");
+        assertMalformedCurrencies("{\"AUD\":\"Australian\nDollar\"}");
+        assertMalformedCurrencies("{\"AUD\":\"Bad \\x escape\"}");
+        assertMalformedCurrencies("{\"AUD\":1}");
+        assertMalformedCurrencies("{\"AUD\":\"Australian Dollar\"} {}");
+    }
+
+    @Test
+    public void rejectsMalformedLatest() {
+        assertMalformedLatest("{\"base\":\"EUR\",\"rates\":{\"USD\":1.08,}}");
+        assertMalformedLatest("{\"base\":\"EUR\",\"rates\":{\"USD\":\"1.08\"}}");
+        assertMalformedLatest("{\"base\":\"EUR\",\"rates\":{\"USD\":1.0.8}}");
+        assertMalformedLatest("{\"base\":\"EUR\",\"rates\":{\"USD\":-}}");
+        assertMalformedLatest("{\"base\":\"EUR\",\"rates\":{\"USD\":1.08}");
+        assertMalformedLatest("{\"base\":\"EUR\",\"rates\":{\"USD\":nul}}");
+        assertMalformedLatest("{\"base\":\"EUR\",\"rates\":{\"USD\":1.08}}garbage");
+    }
+
+    @Test
+    public void rejectsLatestWithoutBase() {
+        assertMalformedLatest("{\"rates\":{\"USD\":1.08}}");
+    }
+
+    @Test
+    public void rejectsNonPositiveAndInfiniteRates() {
+        assertMalformedLatest("{\"base\":\"EUR\",\"rates\":{\"USD\":0}}");
+        assertMalformedLatest("{\"base\":\"EUR\",\"rates\":{\"USD\":-1.08}}");
+        assertMalformedLatest("{\"base\":\"EUR\",\"rates\":{\"USD\":1e999}}");
+    }
+
+    @Test
+    public void rejectsMalformedTimeSeries() {
+        assertMalformedTimeSeries("{\"rates\":{\"2024-01-02\":{\"USD\":1.09}}");
+        assertMalformedTimeSeries("{\"rates\":{\"2024-01-02\":[1.09]}}");
+        assertMalformedTimeSeries("{\"rates\":{\"2024-01-02\":{\"USD\":true}}}");
+        assertMalformedTimeSeries("{\"rates\":{\"2024-01-02\":{\"USD\":1.09}}}}");
+    }
+
+    @Test
+    public void errorsCarryTheOffset() {
+        try {
+            RatesParser.parseLatest(new StringReader("{\"base\":\"EUR\",\"rates\":{\"USD\" 1.08}}"));
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().matches("Expected ':' at offset \\d+"));
+        }
+    }
+
+    private static void assertMalformedCurrencies(String json) {
+        try {
+            RatesParser.parseCurrencies(new StringReader(json), new ArrayList<>(), new ArrayList<>());
+            fail("Accepted " + json);
+        } catch (IOException expected) {
+        }
+    }
+
+    private static void assertMalformedLatest(String json) {
+        try {
+            RatesParser.parseLatest(new StringReader(json));
+            fail("Accepted " + json);
+        } catch (IOException expected) {
+        }
+    }
+
+    private static void assertMalformedTimeSeries(String json) {
+        try {
+            RatesParser.parseTimeSeries(new StringReader(json), "USD");
+            fail("Accepted " + json);
+        } catch (IOException expected) {
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.izpit.currencyconverter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.TimeZone;
+import org.junit.Test;
+
+public class TimeSeriesTest {
+    private static final String[] ZONES = {"UTC", "America/Los_Angeles", "Europe/Berlin",
+            "Asia/Kolkata", "Pacific/Auckland", "Pacific/Kiritimati", "Pacific/Pago_Pago"};
+
+    @Test
+    public void parsesIsoDates() {
+        assertEquals(0, TimeSeries.parseEpochDay("1970-01-01"));
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), TimeSeries.parseEpochDay("2024-02-29"));
+        assertEquals(LocalDate.of(1969, 12, 31).toEpochDay(), TimeSeries.parseEpochDay("1969-12-31"));
+    }
+
+    @Test
+    public void epochMonthMatchesTheCalendar() {
+        for (LocalDate date = LocalDate.of(1960, 1, 1); date.getYear() < 2100; date = date.plusDays(13)) {
+            int expected = (date.getYear() - 1970) * 12 + date.getMonthValue() - 1;
+            assertEquals(date.toString(), expected, TimeSeries.epochMonth((int) date.toEpochDay()));
+        }
+    }
+
+    @Test
+    public void localEpochDayMatchesTheLocalDate() {
+        long start = Instant.parse("2023-12-30T00:00:00Z").toEpochMilli();
+        long end = Instant.parse("2025-01-02T00:00:00Z").toEpochMilli();
+        for (String id : ZONES) {
+            TimeZone zone = TimeZone.getTimeZone(id);
+            // Every 37 minutes over a year, so every hour of the day and both DST changes are hit.
+            for (long timestamp = start; timestamp < end; timestamp += 37 * 60_000L) {
+                LocalDate expected = Instant.ofEpochMilli(timestamp).atZone(ZoneId.of(id)).toLocalDate();
+                assertEquals(id + " " + Instant.ofEpochMilli(timestamp),
+                        expected.toEpochDay(), TimeSeries.localEpochDay(timestamp, zone));
+            }
+        }
+    }
+
+    @Test
+    public void localMidnightMatchesTheStartOfTheLocalDay() {
+        // America/Santiago and America/Havana move their clocks at midnight.
+        String[] zones = Arrays.copyOf(ZONES, ZONES.length + 2);
+        zones[ZONES.length] = "America/Santiago";
+        zones[ZONES.length + 1] = "America/Havana";
+        for (String id : zones) {
+            TimeZone zone = TimeZone.getTimeZone(id);
+            for (LocalDate date = LocalDate.of(2023, 12, 30); date.getYear() < 2025; date = date.plusDays(1)) {
+                int epochDay = (int) date.toEpochDay();
+                long expected = date.atStartOfDay(ZoneId.of(id)).toInstant().toEpochMilli();
+                assertEquals(id + " " + date, expected, TimeSeries.localMidnight(epochDay, zone));
+                assertEquals(id + " " + date, epochDay,
+                        TimeSeries.localEpochDay(TimeSeries.localMidnight(epochDay, zone), zone));
+            }
+        }
+    }
+
+    @Test
+    public void localDayTurnsOverAtLocalMidnight() {
+        TimeZone berlin = TimeZone.getTimeZone("Europe/Berlin");
+        long midnight = Instant.parse("2024-06-14T22:00:00Z").toEpochMilli();
+        int june15 = (int) LocalDate.of(2024, 6, 15).toEpochDay();
+        assertEquals(june15 - 1, TimeSeries.localEpochDay(midnight - 1, berlin));
+        assertEquals(june15, TimeSeries.localEpochDay(midnight, berlin));
+        // The UTC date is still the 14th.
+        assertEquals(june15 - 1, midnight / ChronoUnit.DAYS.getDuration().toMillis());
+    }
+}